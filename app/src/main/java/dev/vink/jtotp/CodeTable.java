@@ -0,0 +1,301 @@
+package dev.vink.jtotp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact, read-only table of precomputed TOTP codes for a contiguous range of
+ * time steps.
+ * <p>
+ * Codes are bit-packed using the minimum number of bits for the configured
+ * digits (20 bits for 6 digits, 27 bits for 8 digits) behind a fixed 24-byte
+ * header. Tables can be written to a file and memory-mapped back, and any code
+ * can be looked up in O(1) without decoding the rest of the table.
+ * <p>
+ * Header layout (big-endian):
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "JTCT"
+ *      4     1  format version
+ *      5     1  algorithm (1 = HmacSHA1, 2 = HmacSHA256, 3 = HmacSHA512)
+ *      6     1  digits
+ *      7     1  bits per code
+ *      8     4  period in seconds
+ *     12     8  first time step
+ *     20     4  number of codes
+ * </pre>
+ * Packed codes follow the header, stored least significant bit first.
+ */
+public final class CodeTable {
+
+    private static final int MAGIC = 0x4A54_4354; // "JTCT"
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+
+    private final ByteBuffer buffer;
+    private final String algorithm;
+    private final int digits;
+    private final int bitsPerCode;
+    private final int period;
+    private final long fromCounter;
+    private final int count;
+
+    private CodeTable(ByteBuffer buffer) {
+        ByteBuffer table = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+        if (table.remaining() < HEADER_SIZE || table.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Invalid code table format.");
+        }
+        if (table.get(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported code table version: " + table.get(4));
+        }
+        this.algorithm = algorithmName(table.get(5));
+        this.digits = table.get(6);
+        this.bitsPerCode = table.get(7);
+        this.period = table.getInt(8);
+        this.fromCounter = table.getLong(12);
+        this.count = table.getInt(20);
+
+        if (digits <= 0 || bitsPerCode != bitsFor(digits) || period <= 0 || count < 0
+                || table.remaining() < HEADER_SIZE + dataSize(count, bitsPerCode)) {
+            throw new IllegalArgumentException("Invalid code table format.");
+        }
+        this.buffer = table;
+    }
+
+    /**
+     * Generates a table for a contiguous range of time steps.
+     *
+     * @param generator   The generator to take the codes and configuration from.
+     * @param fromCounter The first time step (Unix time divided by the period).
+     * @param count       The number of consecutive time steps.
+     * @return A new heap-backed code table.
+     * @throws IllegalArgumentException If count is negative, digits is not
+     *                                  between 1 and 127, the algorithm is not
+     *                                  supported or the table would be too large.
+     */
+    public static CodeTable create(TOTPGenerator generator, long fromCounter, int count) {
+        int digits = generator.getDigits();
+        // The header stores digits in a single signed byte
+        if (digits < 1 || digits > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Digits must be between 1 and " + Byte.MAX_VALUE + ": " + digits);
+        }
+        int bits = bitsFor(digits);
+        long size = HEADER_SIZE + dataSize(count, bits);
+        if (count < 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid code table size: " + count);
+        }
+
+        ByteBuffer table = ByteBuffer.allocate((int) size);
+        table.putInt(MAGIC)
+                .put(VERSION)
+                .put(algorithmId(generator.getAlgorithm()))
+                .put((byte) digits)
+                .put((byte) bits)
+                .putInt(generator.getPeriod())
+                .putLong(fromCounter)
+                .putInt(count);
+
+        int[] codes = generator.generateRange(fromCounter, count);
+        long bitOffset = 0;
+        for (int code : codes) {
+            write(table, bitOffset, bits, code);
+            bitOffset += bits;
+        }
+        table.clear();
+        return new CodeTable(table);
+    }
+
+    /**
+     * Wraps an existing buffer holding a serialized code table. The buffer
+     * contents are not copied.
+     *
+     * @param buffer The buffer positioned at the start of the table.
+     * @return The code table backed by the buffer.
+     * @throws IllegalArgumentException If the buffer does not hold a valid table.
+     */
+    public static CodeTable wrap(ByteBuffer buffer) {
+        return new CodeTable(buffer);
+    }
+
+    /**
+     * Memory-maps a code table file read-only.
+     *
+     * @param path The file previously written with {@link #writeTo(Path)}.
+     * @return The code table backed by the mapped file.
+     * @throws IOException              If the file cannot be read or mapped.
+     * @throws IllegalArgumentException If the file does not hold a valid table.
+     */
+    public static CodeTable map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new CodeTable(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the table to a file, replacing any existing content.
+     *
+     * @param path The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeTo(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer source = buffer.duplicate();
+            source.clear().limit(HEADER_SIZE + (int) dataSize(count, bitsPerCode));
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+
+    /**
+     * Returns the code for a time step.
+     *
+     * @param counter The time step (Unix time divided by the period).
+     * @return The code as an integer.
+     * @throws IndexOutOfBoundsException If the time step is not in the table.
+     */
+    public int codeAt(long counter) {
+        long index = counter - fromCounter;
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Time step not in table: " + counter);
+        }
+        return read(buffer, index * bitsPerCode, bitsPerCode);
+    }
+
+    /**
+     * Returns the code for a specific time.
+     *
+     * @param time The time in seconds since the Unix epoch.
+     * @return The code as an integer.
+     * @throws IndexOutOfBoundsException If the time is not covered by the table.
+     */
+    public int codeAtTime(long time) {
+        return codeAt(time / period);
+    }
+
+    /**
+     * Returns the code for a time step, zero-padded to the configured digits.
+     *
+     * @param counter The time step (Unix time divided by the period).
+     * @return The code as a string.
+     * @throws IndexOutOfBoundsException If the time step is not in the table.
+     */
+    public String formattedCodeAt(long counter) {
+        return String.format("%0" + digits + "d", codeAt(counter));
+    }
+
+    /**
+     * Returns the HMAC algorithm the codes were generated with.
+     *
+     * @return The algorithm name.
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the number of digits of the codes.
+     *
+     * @return The number of digits.
+     */
+    public int getDigits() {
+        return digits;
+    }
+
+    /**
+     * Returns the time period of a single time step.
+     *
+     * @return The time period in seconds.
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    /**
+     * Returns the first time step covered by the table.
+     *
+     * @return The first time step.
+     */
+    public long getFromCounter() {
+        return fromCounter;
+    }
+
+    /**
+     * Returns the number of codes in the table.
+     *
+     * @return The number of codes.
+     */
+    public int size() {
+        return count;
+    }
+
+    private static int bitsFor(int digits) {
+        // Codes of 10 or more digits are bounded by the 31-bit truncated value
+        if (digits >= 10) {
+            return 31;
+        }
+        long max = 1;
+        for (int i = 0; i < digits; i++) {
+            max *= 10;
+        }
+        return 64 - Long.numberOfLeadingZeros(max - 1);
+    }
+
+    private static long dataSize(int count, int bits) {
+        return ((long) count * bits + 7) / 8;
+    }
+
+    private static void write(ByteBuffer table, long bitOffset, int bits, int value) {
+        int index = HEADER_SIZE + (int) (bitOffset >>> 3);
+        int shift = (int) (bitOffset & 7);
+        long pending = (long) value << shift;
+        for (int remaining = bits + shift; remaining > 0; remaining -= 8) {
+            table.put(index, (byte) (table.get(index) | pending));
+            pending >>>= 8;
+            index++;
+        }
+    }
+
+    private static int read(ByteBuffer table, long bitOffset, int bits) {
+        int index = HEADER_SIZE + (int) (bitOffset >>> 3);
+        int shift = (int) (bitOffset & 7);
+        long value = 0;
+        int loaded = 0;
+        for (int remaining = bits + shift; remaining > 0; remaining -= 8) {
+            value |= (long) (table.get(index++) & 0xff) << loaded;
+            loaded += 8;
+        }
+        return (int) ((value >>> shift) & ((1L << bits) - 1));
+    }
+
+    private static byte algorithmId(String algorithm) {
+        switch (algorithm) {
+            case HMACUtils.SHA1_ALGORITHM:
+                return 1;
+            case HMACUtils.SHA256_ALGORITHM:
+                return 2;
+            case HMACUtils.SHA512_ALGORITHM:
+                return 3;
+            default:
+                throw new IllegalArgumentException("Unsupported algorithm: " + algorithm);
+        }
+    }
+
+    private static String algorithmName(byte id) {
+        switch (id) {
+            case 1:
+                return HMACUtils.SHA1_ALGORITHM;
+            case 2:
+                return HMACUtils.SHA256_ALGORITHM;
+            case 3:
+                return HMACUtils.SHA512_ALGORITHM;
+            default:
+                throw new IllegalArgumentException("Unsupported algorithm id: " + id);
+        }
+    }
+}
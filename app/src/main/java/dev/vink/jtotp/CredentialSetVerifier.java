@@ -0,0 +1,335 @@
+package dev.vink.jtotp;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifies a single code against all credentials enrolled for an account.
+ * <p>
+ * Credentials are grouped by period, so the time counter and acceptance window
+ * are computed once per group rather than once per credential. Each
+ * credential is checked at the current time step first and then at
+ * increasing drift within the window. Large sets are evaluated in parallel
+ * and stop as soon as a match is found.
+ * <p>
+ * Parallel evaluation runs on the executor given to
+ * {@link Builder#withExecutor(ExecutorService)}, or on
+ * {@link ForkJoinPool#commonPool()} if none is set. In a server the common pool
+ * is shared with parallel streams and other library code, so a dedicated
+ * executor keeps verification latency independent of that work.
+ */
+public final class CredentialSetVerifier {
+
+    /**
+     * Default number of time steps accepted before and after the current one.
+     */
+    public static final int DEFAULT_WINDOW = 1;
+
+    /**
+     * Default number of credentials from which candidates are evaluated in
+     * parallel.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 16;
+
+    /**
+     * A successful verification: the credential that matched and at which
+     * drift.
+     */
+    public static final class Match {
+        private final String credentialId;
+        private final int drift;
+
+        private Match(String credentialId, int drift) {
+            this.credentialId = credentialId;
+            this.drift = drift;
+        }
+
+        /**
+         * Returns the identifier of the credential that matched.
+         *
+         * @return The credential identifier.
+         */
+        public String getCredentialId() {
+            return credentialId;
+        }
+
+        /**
+         * Returns the number of time steps between the current one and the one
+         * that matched.
+         *
+         * @return The drift in time steps (positive or negative).
+         */
+        public int getDrift() {
+            return drift;
+        }
+    }
+
+    private record Credential(String id, TOTPGenerator generator) {
+    }
+
+    private record Group(int period, List<Credential> credentials) {
+    }
+
+    private record Candidate(Credential credential, long counter, int drift) {
+    }
+
+    private final List<Group> groups;
+    private final int credentialCount;
+    private final int window;
+    private final int parallelThreshold;
+    private final ExecutorService executor;
+
+    private CredentialSetVerifier(Builder builder) {
+        Map<Integer, List<Credential>> grouped = new LinkedHashMap<>();
+        for (Credential credential : builder.credentials) {
+            grouped.computeIfAbsent(credential.generator().getPeriod(), period -> new ArrayList<>())
+                    .add(credential);
+        }
+        List<Group> groups = new ArrayList<>();
+        grouped.forEach((period, credentials) -> groups.add(new Group(period, List.copyOf(credentials))));
+        this.groups = List.copyOf(groups);
+        this.credentialCount = builder.credentials.size();
+        this.window = builder.window;
+        this.parallelThreshold = builder.parallelThreshold;
+        this.executor = builder.executor != null ? builder.executor : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Verifies a code against every credential at the current time.
+     *
+     * @param code The code entered by the user.
+     * @return The matching credential, or empty if no credential accepts the
+     *         code.
+     */
+    public Optional<Match> verify(String code) {
+        return verifyWithTime(code, Instant.now().getEpochSecond());
+    }
+
+    /**
+     * Verifies a code against every credential at a specific time.
+     *
+     * @param code The code entered by the user.
+     * @param time The time in seconds since the Unix epoch.
+     * @return The matching credential, or empty if no credential accepts the
+     *         code.
+     */
+    public Optional<Match> verifyWithTime(String code, long time) {
+        if (code == null || code.isEmpty() || code.length() > 10) {
+            return Optional.empty();
+        }
+        long parsed = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9') {
+                return Optional.empty();
+            }
+            parsed = parsed * 10 + (c - '0');
+        }
+
+        // One counter per distinct period, shared by every credential in the group
+        long[] counters = new long[groups.size()];
+        for (int g = 0; g < counters.length; g++) {
+            counters[g] = time / groups.get(g).period();
+        }
+
+        boolean parallel = credentialCount >= parallelThreshold;
+        TOTPEvents.CredentialSetVerification event = TOTPEvents.beginCredentialSetVerification();
+        Optional<Match> match = parallel
+                ? verifyParallel(code.length(), parsed, counters)
+                : verifySequential(code.length(), parsed, counters);
+        if (event != null && event.shouldCommit()) {
+            event.credentials = credentialCount;
+            event.window = window;
+            event.parallel = parallel;
+            event.credentialId = match.map(Match::getCredentialId).orElse(null);
+            event.commit();
+        }
+        return match;
+    }
+
+    private Optional<Match> verifySequential(int length, long parsed, long[] counters) {
+        // Check every credential at the current step before accepting any drift
+        for (int step = 0; step <= 2 * window; step++) {
+            int drift = driftAt(step);
+            for (int g = 0; g < counters.length; g++) {
+                for (Credential credential : groups.get(g).credentials()) {
+                    if (credential.generator().getDigits() == length
+                            && credential.generator().generateCode(counters[g] + drift) == parsed) {
+                        return Optional.of(new Match(credential.id(), drift));
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Match> verifyParallel(int length, long parsed, long[] counters) {
+        List<Candidate> candidates = new ArrayList<>(credentialCount * (2 * window + 1));
+        // Order candidates by drift so the closest time step is preferred
+        for (int step = 0; step <= 2 * window; step++) {
+            int drift = driftAt(step);
+            for (int g = 0; g < counters.length; g++) {
+                for (Credential credential : groups.get(g).credentials()) {
+                    if (credential.generator().getDigits() == length) {
+                        candidates.add(new Candidate(credential, counters[g] + drift, drift));
+                    }
+                }
+            }
+        }
+
+        // Split into contiguous chunks; the lowest matching index wins so the closest step is preferred
+        int chunks = Math.min(candidates.size(), Runtime.getRuntime().availableProcessors());
+        if (chunks == 0) {
+            return Optional.empty();
+        }
+        int chunkSize = (candidates.size() + chunks - 1) / chunks;
+        AtomicInteger firstMatch = new AtomicInteger(Integer.MAX_VALUE);
+        List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        for (int start = 0; start < candidates.size(); start += chunkSize) {
+            int from = start;
+            int to = Math.min(start + chunkSize, candidates.size());
+            tasks.add(() -> {
+                // Stop once a match ordered before this candidate has been found
+                for (int i = from; i < to && i < firstMatch.get(); i++) {
+                    Candidate candidate = candidates.get(i);
+                    if (candidate.credential().generator().generateCode(candidate.counter()) == parsed) {
+                        firstMatch.accumulateAndGet(i, Math::min);
+                        break;
+                    }
+                }
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while verifying credentials", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Error verifying credentials", e.getCause());
+        }
+
+        int index = firstMatch.get();
+        if (index == Integer.MAX_VALUE) {
+            return Optional.empty();
+        }
+        Candidate match = candidates.get(index);
+        return Optional.of(new Match(match.credential().id(), match.drift()));
+    }
+
+    // Maps 0, 1, 2, 3, 4 ... to drifts 0, -1, 1, -2, 2 ...
+    private static int driftAt(int step) {
+        return (step & 1) == 0 ? step / 2 : -(step + 1) / 2;
+    }
+
+    /**
+     * Builder class for constructing instances of CredentialSetVerifier.
+     */
+    public static class Builder {
+        private final List<Credential> credentials = new ArrayList<>();
+        private int window = DEFAULT_WINDOW;
+        private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+        private ExecutorService executor; // Common pool when unset
+
+        /**
+         * Adds an enrolled credential.
+         *
+         * @param credentialId The identifier reported when this credential
+         *                     matches.
+         * @param generator    The generator for the credential.
+         * @return The current Builder instance.
+         */
+        public Builder addCredential(String credentialId, TOTPGenerator generator) {
+            if (credentialId == null || generator == null) {
+                throw new IllegalArgumentException("Credential id and generator must be set");
+            }
+            credentials.add(new Credential(credentialId, generator));
+            return this;
+        }
+
+        /**
+         * Adds an enrolled credential from an OTP URL.
+         *
+         * @param credentialId The identifier reported when this credential
+         *                     matches.
+         * @param otpUrl       The OTP URL of the credential.
+         * @return The current Builder instance.
+         */
+        public Builder addCredential(String credentialId, String otpUrl) {
+            return addCredential(credentialId, new TOTPGenerator.Builder().fromOtpUrl(otpUrl).build());
+        }
+
+        /**
+         * Sets the number of time steps accepted before and after the current
+         * one.
+         *
+         * @param window The window in time steps.
+         * @return The current Builder instance.
+         */
+        public Builder withWindow(int window) {
+            if (window < 0) {
+                throw new IllegalArgumentException("Window must not be negative");
+            }
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Sets the number of credentials from which candidates are evaluated in
+         * parallel.
+         *
+         * @param parallelThreshold The minimum number of credentials for
+         *                          parallel evaluation.
+         * @return The current Builder instance.
+         * @throws IllegalArgumentException If parallelThreshold is less than 1.
+         */
+        public Builder withParallelThreshold(int parallelThreshold) {
+            if (parallelThreshold < 1) {
+                throw new IllegalArgumentException("Parallel threshold must be at least 1");
+            }
+            this.parallelThreshold = parallelThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the executor used for parallel evaluation. The executor is not
+         * shut down by the verifier.
+         *
+         * @param executor The executor, or null for
+         *                 {@link ForkJoinPool#commonPool()}.
+         * @return The current Builder instance.
+         */
+        public Builder withExecutor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Builds and returns a CredentialSetVerifier instance.
+         *
+         * @return A new CredentialSetVerifier instance.
+         */
+        public CredentialSetVerifier build() {
+            if (credentials.isEmpty()) {
+                throw new IllegalArgumentException("At least one credential is required");
+            }
+            return new CredentialSetVerifier(this);
+        }
+    }
+}
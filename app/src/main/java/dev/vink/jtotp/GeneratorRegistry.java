@@ -0,0 +1,263 @@
+package dev.vink.jtotp;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import org.apache.commons.codec.binary.Base32;
+
+/**
+ * Thread-safe registry that shares {@link TOTPGenerator} instances between
+ * callers using the same configuration.
+ * <p>
+ * Generators are keyed by their canonical (secret, algorithm, digits, period,
+ * backend) configuration. The canonical secret is the Base32 encoding of the decoded
+ * key, so any spelling of a secret that decodes to the same key, e.g. with
+ * lower-case letters, maps to the same generator, and that generator always
+ * produces the same codes as one built directly from the original secret.
+ * Generators are immutable and hold their decoded key, so sharing them removes
+ * repeated parsing and duplicate key state.
+ * <p>
+ * Lookups first go to a table keyed on the raw input, i.e. the OTP URL or the
+ * secret exactly as passed together with the other parameters, so a repeated
+ * lookup costs one hash lookup and the URL is only parsed and the secret only
+ * decoded on a miss. Lookups of registered configurations do not block. Entries can be evicted
+ * by size, by idle time, or by the garbage collector when configured with
+ * {@link ReferenceType#WEAK} or {@link ReferenceType#SOFT} references.
+ */
+public final class GeneratorRegistry {
+
+    /**
+     * How the registry references its generators.
+     */
+    public enum ReferenceType {
+        /**
+         * Generators are kept until evicted by size or idle time.
+         */
+        STRONG,
+        /**
+         * Generators are discarded once no caller references them.
+         */
+        WEAK,
+        /**
+         * Generators are discarded in response to memory pressure.
+         */
+        SOFT
+    }
+
+    private record Key(String secret, String algorithm, int digits, int period, HMACBackend backend) {
+    }
+
+    // Raw lookup parameters; the backend is null when the default is requested
+    private record Alias(String secret, String algorithm, int digits, int period, HMACBackend backend) {
+    }
+
+    private final Cache<Key, TOTPGenerator> cache;
+    // OTP URL strings and Alias records, mapped to the generator of their canonical key
+    private final Cache<Object, TOTPGenerator> aliases;
+
+    private GeneratorRegistry(Builder builder) {
+        this.cache = newCache(builder);
+        this.aliases = newCache(builder);
+    }
+
+    // Both tables share the eviction settings so an alias never outlives the policy for its generator
+    private static <K> Cache<K, TOTPGenerator> newCache(Builder builder) {
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+        if (builder.maximumSize >= 0) {
+            cacheBuilder.maximumSize(builder.maximumSize);
+        }
+        if (builder.expireAfterAccess != null) {
+            cacheBuilder.expireAfterAccess(builder.expireAfterAccess);
+        }
+        if (builder.referenceType == ReferenceType.WEAK) {
+            cacheBuilder.weakValues();
+        } else if (builder.referenceType == ReferenceType.SOFT) {
+            cacheBuilder.softValues();
+        }
+        return cacheBuilder.build();
+    }
+
+    /**
+     * Returns the shared generator for the given configuration, creating it if
+     * needed.
+     *
+     * @param secret    The shared secret as a Base32-encoded string.
+     * @param algorithm The algorithm to use (e.g., HmacSHA1, HmacSHA256,
+     *                  HmacSHA512).
+     * @param digits    The number of digits for the TOTP.
+     * @param period    The time period in seconds.
+     * @return The shared generator.
+     * @throws IllegalArgumentException If the secret is missing.
+     */
+    public TOTPGenerator get(String secret, String algorithm, int digits, int period) {
+        Alias alias = new Alias(secret, algorithm, digits, period, null);
+        TOTPGenerator generator = aliases.getIfPresent(alias);
+        if (generator != null) {
+            return generator;
+        }
+        return register(alias, new TOTPGenerator.Builder()
+                .withSecret(secret)
+                .withAlgorithm(algorithm)
+                .withDigits(digits)
+                .withPeriod(period));
+    }
+
+    /**
+     * Returns the shared generator for the configuration of an OTP URL,
+     * creating it if needed.
+     *
+     * @param otpUrl The OTP URL to parse.
+     * @return The shared generator.
+     * @throws IllegalArgumentException If the OTP URL is invalid or the secret is
+     *                                  missing.
+     */
+    public TOTPGenerator fromOtpUrl(String otpUrl) {
+        TOTPGenerator generator = aliases.getIfPresent(otpUrl);
+        if (generator != null) {
+            return generator;
+        }
+        return register(otpUrl, new TOTPGenerator.Builder().fromOtpUrl(otpUrl));
+    }
+
+    /**
+     * Returns the shared generator for the configuration of a builder, creating
+     * it if needed.
+     *
+     * @param builder The builder holding the configuration.
+     * @return The shared generator.
+     * @throws IllegalArgumentException If the secret is missing.
+     */
+    public TOTPGenerator get(TOTPGenerator.Builder builder) {
+        Alias alias = new Alias(builder.getSecret(), builder.getAlgorithm(), builder.getDigits(),
+                builder.getPeriod(), builder.getBackend());
+        TOTPGenerator generator = aliases.getIfPresent(alias);
+        if (generator != null) {
+            return generator;
+        }
+        return register(alias, builder);
+    }
+
+    private TOTPGenerator register(Object alias, TOTPGenerator.Builder builder) {
+        TOTPGenerator generator = canonical(builder);
+        aliases.put(alias, generator);
+        return generator;
+    }
+
+    private TOTPGenerator canonical(TOTPGenerator.Builder builder) {
+        String secret = builder.getSecret();
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("Required parameter Secret is missing");
+        }
+        // Resolve the default so explicit and implicit use of it share a generator
+        HMACBackend backend = builder.getBackend() != null ? builder.getBackend() : HMACUtils.defaultBackend();
+        Key key = new Key(canonicalSecret(secret), builder.getAlgorithm(), builder.getDigits(),
+                builder.getPeriod(), backend);
+
+        TOTPGenerator generator = cache.getIfPresent(key);
+        if (generator != null) {
+            return generator;
+        }
+        try {
+            return cache.get(key, () -> new TOTPGenerator.Builder()
+                    .withSecret(key.secret())
+                    .withAlgorithm(key.algorithm())
+                    .withDigits(key.digits())
+                    .withPeriod(key.period())
+                    .withBackend(key.backend())
+                    .build());
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Error creating TOTP generator", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the approximate number of generators in the registry.
+     *
+     * @return The number of generators.
+     */
+    public long size() {
+        cache.cleanUp();
+        return cache.size();
+    }
+
+    /**
+     * Removes all generators from the registry. Generators already handed out
+     * remain usable.
+     */
+    public void clear() {
+        aliases.invalidateAll();
+        cache.invalidateAll();
+    }
+
+    private static String canonicalSecret(String secret) {
+        // Round-trip through the decoder so the key matches what the generator will use
+        Base32 codec = new Base32();
+        return codec.encodeToString(codec.decode(secret));
+    }
+
+    /**
+     * Builder class for constructing instances of GeneratorRegistry.
+     */
+    public static class Builder {
+        private long maximumSize = -1; // Unbounded by default
+        private Duration expireAfterAccess;
+        private ReferenceType referenceType = ReferenceType.STRONG;
+
+        /**
+         * Sets the maximum number of generators kept in the registry.
+         *
+         * @param maximumSize The maximum number of generators.
+         * @return The current Builder instance.
+         * @throws IllegalArgumentException If maximumSize is negative.
+         */
+        public Builder withMaximumSize(long maximumSize) {
+            if (maximumSize < 0) {
+                throw new IllegalArgumentException("Maximum size must not be negative");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Sets how long a generator may go unused before it is evicted.
+         *
+         * @param expireAfterAccess The idle time.
+         * @return The current Builder instance.
+         * @throws IllegalArgumentException If the duration is negative.
+         */
+        public Builder withExpireAfterAccess(Duration expireAfterAccess) {
+            if (expireAfterAccess.isNegative()) {
+                throw new IllegalArgumentException("Idle time must not be negative");
+            }
+            this.expireAfterAccess = expireAfterAccess;
+            return this;
+        }
+
+        /**
+         * Sets how the registry references its generators.
+         *
+         * @param referenceType The reference type.
+         * @return The current Builder instance.
+         */
+        public Builder withReferenceType(ReferenceType referenceType) {
+            this.referenceType = referenceType;
+            return this;
+        }
+
+        /**
+         * Builds and returns a GeneratorRegistry instance.
+         *
+         * @return A new GeneratorRegistry instance.
+         */
+        public GeneratorRegistry build() {
+            return new GeneratorRegistry(this);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package dev.vink.jtotp;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Service provider interface for the HMAC implementation used by
+ * {@link TOTPGenerator}.
+ * <p>
+ * The default backend is {@link JcaHMACBackend}. Alternative backends, such as
+ * one calling a native crypto library, are discovered with
+ * {@link java.util.ServiceLoader} by listing the implementation class in
+ * {@code META-INF/services/dev.vink.jtotp.HMACBackend}. A discovered backend is
+ * only used if it reports itself available and reproduces the RFC 6238 test
+ * vectors; otherwise the JCA backend is used. See
+ * {@link HMACUtils#defaultBackend()}.
+ */
+public interface HMACBackend {
+
+    /**
+     * Returns a short name identifying the backend.
+     *
+     * @return The backend name.
+     */
+    String name();
+
+    /**
+     * Checks whether the backend can be used in this JVM, e.g. whether a
+     * required native library is present.
+     *
+     * @return {@code true} if the backend is usable.
+     */
+    boolean isAvailable();
+
+    /**
+     * Creates a context holding the initialized key for one secret and
+     * algorithm.
+     *
+     * @param key       The secret key as a byte array.
+     * @param algorithm The HMAC algorithm to use (e.g., HmacSHA1, HmacSHA256,
+     *                  HmacSHA512).
+     * @return A context that computes HMACs with the given key.
+     * @throws NoSuchAlgorithmException If the HMAC algorithm is not available.
+     * @throws InvalidKeyException      If the provided key is invalid.
+     */
+    Context init(byte[] key, String algorithm) throws NoSuchAlgorithmException, InvalidKeyException;
+
+    /**
+     * Keyed HMAC state for a single secret and algorithm. Contexts are shared by
+     * all callers of a generator and must be safe for concurrent use.
+     */
+    interface Context {
+
+        /**
+         * Calculates the HMAC of the given data.
+         *
+         * @param data The data to be hashed as a byte array.
+         * @return A byte array representing the HMAC of the input data.
+         */
+        byte[] compute(byte[] data);
+
+        /**
+         * Calculates the HMAC of a single time counter, encoded as an 8-byte
+         * big-endian value, on the verification hot path.
+         * <p>
+         * The returned array may be a buffer owned by the calling thread that
+         * is overwritten by the next call on that thread, so callers must
+         * consume it before calling again and must not retain it. Backends
+         * override this to avoid allocating per call.
+         *
+         * @param counter The time counter.
+         * @return The HMAC of the counter.
+         */
+        default byte[] computeCounter(long counter) {
+            return compute(HMACUtils.counterBytes(counter));
+        }
+
+        /**
+         * Calculates the HMACs of a contiguous range of time counters, each
+         * encoded as an 8-byte big-endian value. Backends override this to
+         * amortize per-call setup across the batch.
+         *
+         * @param fromCounter The first time counter.
+         * @param count       The number of consecutive time counters.
+         * @return The HMACs; element {@code i} is the HMAC of
+         *         {@code fromCounter + i}.
+         */
+        default byte[][] computeCounters(long fromCounter, int count) {
+            byte[][] hmacs = new byte[count][];
+            for (int i = 0; i < count; i++) {
+                hmacs[i] = compute(HMACUtils.counterBytes(fromCounter + i));
+            }
+            return hmacs;
+        }
+    }
+}
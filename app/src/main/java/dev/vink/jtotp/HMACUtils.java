@@ -1,12 +1,18 @@
 package dev.vink.jtotp;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 
+import org.apache.commons.codec.binary.Base32;
+
 /**
  * Utility class for generating HMAC (Hash-based Message Authentication Code)
  * and converting byte arrays to hexadecimal strings.
@@ -26,7 +32,140 @@ public class HMACUtils {
      */
     public static final String SHA512_ALGORITHM = "HmacSHA512";
 
+    // RFC 6238 Appendix B seed; repeated to the key length of each algorithm
+    private static final String RFC6238_SEED = "1234567890";
+
+    // RFC 6238 Appendix B codes at T = 59 and T = 1111111109, used to validate discovered backends
+    private static final String[][] SELF_TEST_VECTORS = {
+            {SHA1_ALGORITHM, "94287082", "07081804"},
+            {SHA256_ALGORITHM, "46119246", "68084774"},
+            {SHA512_ALGORITHM, "90693936", "25091201"}
+    };
+
+    private static final System.Logger LOGGER = System.getLogger(HMACUtils.class.getName());
+
     private HMACUtils() {}
+
+    private static final class DefaultBackendHolder {
+        private static final HMACBackend BACKEND = selectBackend();
+    }
+
+    /**
+     * Returns the HMAC backend used by generators that were not given one
+     * explicitly.
+     * <p>
+     * Backends registered through {@link ServiceLoader} are tried in discovery
+     * order. The first one that is available and reproduces the RFC 6238 test
+     * vectors for every supported algorithm is used; otherwise this is
+     * {@link JcaHMACBackend#INSTANCE}. The choice is made once per JVM.
+     *
+     * @return The default HMAC backend.
+     */
+    public static HMACBackend defaultBackend() {
+        return DefaultBackendHolder.BACKEND;
+    }
+
+    private static HMACBackend selectBackend() {
+        return selectBackend(ServiceLoader.load(HMACBackend.class).iterator());
+    }
+
+    static HMACBackend selectBackend(Iterator<HMACBackend> providers) {
+        while (hasNextProvider(providers)) {
+            // A broken provider must not prevent TOTP generation or hide the providers after it
+            HMACBackend candidate;
+            try {
+                candidate = providers.next();
+            } catch (ServiceConfigurationError | LinkageError e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Skipping HMAC backend that failed to load", e);
+                continue;
+            }
+
+            try {
+                if (!candidate.isAvailable()) {
+                    LOGGER.log(System.Logger.Level.DEBUG, "HMAC backend {0} is not available", candidate.name());
+                } else if (!passesSelfTest(candidate)) {
+                    LOGGER.log(System.Logger.Level.WARNING,
+                            "HMAC backend {0} failed the RFC 6238 self-test", candidate.name());
+                } else {
+                    return candidate;
+                }
+            } catch (RuntimeException | LinkageError e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Skipping HMAC backend that failed to initialize", e);
+            }
+        }
+        return JcaHMACBackend.INSTANCE;
+    }
+
+    private static boolean hasNextProvider(Iterator<HMACBackend> providers) {
+        try {
+            return providers.hasNext();
+        } catch (ServiceConfigurationError | LinkageError e) {
+            // The provider configuration itself is unreadable, so retrying could repeat the error
+            LOGGER.log(System.Logger.Level.WARNING, "Unable to look up HMAC backends", e);
+            return false;
+        }
+    }
+
+    static boolean passesSelfTest(HMACBackend backend) {
+        try {
+            for (String[] vector : SELF_TEST_VECTORS) {
+                TOTPGenerator generator = new TOTPGenerator.Builder()
+                        .withSecret(new Base32().encodeToString(rfc6238Seed(vector[0])))
+                        .withDigits(8)
+                        .withAlgorithm(vector[0])
+                        .withBackend(backend)
+                        .build();
+                if (!vector[1].equals(generator.generateWithTime(59L))
+                        || !vector[2].equals(generator.generateWithTime(1111111109L))) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (RuntimeException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the RFC 6238 Appendix B reference key for an algorithm: 20 bytes
+     * for HmacSHA1, 32 bytes for HmacSHA256 and 64 bytes for HmacSHA512.
+     *
+     * @param algorithm The HMAC algorithm.
+     * @return The reference key as a byte array.
+     */
+    static byte[] rfc6238Seed(String algorithm) {
+        int length;
+        switch (algorithm) {
+            case SHA256_ALGORITHM:
+                length = 32;
+                break;
+            case SHA512_ALGORITHM:
+                length = 64;
+                break;
+            default:
+                length = 20;
+                break;
+        }
+        return RFC6238_SEED.repeat(length / RFC6238_SEED.length() + 1)
+                .substring(0, length)
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Encodes a time counter as the 8-byte big-endian message defined by
+     * RFC 4226.
+     *
+     * @param counter The time counter.
+     * @return The counter as an 8-byte array.
+     */
+    static byte[] counterBytes(long counter) {
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) counter;
+            counter >>>= 8;
+        }
+        return bytes;
+    }
     /**
      * Calculates the HMAC of the given data using the specified key and algorithm.
      *
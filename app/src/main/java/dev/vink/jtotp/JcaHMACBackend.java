@@ -0,0 +1,118 @@
+package dev.vink.jtotp;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * HMAC backend using {@link javax.crypto.Mac} from the installed JCA providers.
+ * <p>
+ * Each context keeps a keyed {@link Mac} as a prototype and clones it once
+ * per thread, which skips the provider lookup and key schedule of
+ * {@link HMACUtils#calculateHMAC(byte[], byte[], String)}. Single counters are
+ * computed into buffers owned by the thread, so
+ * {@link Context#computeCounter(long)} does not allocate in jTOTP; whether the
+ * provider allocates internally depends on its implementation.
+ */
+public final class JcaHMACBackend implements HMACBackend {
+
+    /**
+     * Shared instance of the JCA backend.
+     */
+    public static final JcaHMACBackend INSTANCE = new JcaHMACBackend();
+
+    private JcaHMACBackend() {
+    }
+
+    @Override
+    public String name() {
+        return "jca";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public Context init(byte[] key, String algorithm) throws NoSuchAlgorithmException, InvalidKeyException {
+        SecretKeySpec keySpec = new SecretKeySpec(key, algorithm);
+        Mac prototype = Mac.getInstance(algorithm);
+        prototype.init(keySpec);
+        return new JcaContext(prototype, keySpec);
+    }
+
+    private static final class JcaContext implements Context {
+        private final Mac prototype;
+        private final SecretKeySpec keySpec;
+        private final ThreadLocal<ThreadState> threadState;
+
+        private JcaContext(Mac prototype, SecretKeySpec keySpec) {
+            this.prototype = prototype;
+            this.keySpec = keySpec;
+            this.threadState = ThreadLocal.withInitial(() -> new ThreadState(newMac()));
+        }
+
+        @Override
+        public byte[] compute(byte[] data) {
+            return threadState.get().mac.doFinal(data);
+        }
+
+        @Override
+        public byte[] computeCounter(long counter) {
+            ThreadState state = threadState.get();
+            byte[] counterBytes = state.counterBytes;
+            for (int i = 7; i >= 0; i--) {
+                counterBytes[i] = (byte) counter;
+                counter >>>= 8;
+            }
+            try {
+                state.mac.update(counterBytes);
+                state.mac.doFinal(state.hmac, 0);
+            } catch (Exception e) {
+                throw new IllegalStateException("Unable to compute HMAC", e);
+            }
+            return state.hmac;
+        }
+
+        @Override
+        public byte[][] computeCounters(long fromCounter, int count) {
+            Mac mac = threadState.get().mac;
+            byte[][] hmacs = new byte[count][];
+            for (int i = 0; i < count; i++) {
+                // doFinal resets the MAC to its keyed state for the next counter
+                hmacs[i] = mac.doFinal(HMACUtils.counterBytes(fromCounter + i));
+            }
+            return hmacs;
+        }
+
+        // Keyed Mac and reusable buffers confined to one thread
+        private static final class ThreadState {
+            private final Mac mac;
+            private final byte[] counterBytes = new byte[8];
+            private final byte[] hmac;
+
+            private ThreadState(Mac mac) {
+                this.mac = mac;
+                this.hmac = new byte[mac.getMacLength()];
+            }
+        }
+
+        private Mac newMac() {
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                // Providers without clone support fall back to a fresh instance
+                try {
+                    Mac mac = Mac.getInstance(prototype.getAlgorithm(), prototype.getProvider());
+                    mac.init(keySpec);
+                    return mac;
+                } catch (Exception ex) {
+                    throw new IllegalStateException("Unable to create Mac for " + prototype.getAlgorithm(), ex);
+                }
+            }
+        }
+    }
+}
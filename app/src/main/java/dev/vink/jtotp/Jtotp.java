@@ -0,0 +1,96 @@
+package dev.vink.jtotp;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.crypto.Mac;
+
+import org.apache.commons.codec.binary.Base32;
+
+/**
+ * Library-level entry points for jTOTP.
+ * <p>
+ * The first TOTP generated in a fresh JVM pays for JCA provider loading,
+ * {@link Mac#getInstance(String)} service lookup, commons-codec class
+ * initialization and interpreted execution of the generation path.
+ * {@link #warmUp()} moves that cost to application startup so that the first
+ * real request is served at steady-state latency.
+ */
+public final class Jtotp {
+
+    /**
+     * Algorithms exercised by {@link #warmUp()}.
+     */
+    public static final List<String> SUPPORTED_ALGORITHMS = List.of(
+            HMACUtils.SHA1_ALGORITHM,
+            HMACUtils.SHA256_ALGORITHM,
+            HMACUtils.SHA512_ALGORITHM);
+
+    /**
+     * Default number of codes generated and verified per algorithm by
+     * {@link #warmUp()}. Across all algorithms the shared HMAC and truncation
+     * path then runs 30,000 times, twice HotSpot's default C2 compile threshold.
+     */
+    public static final int DEFAULT_WARM_UP_ITERATIONS = 5_000;
+
+    private Jtotp() {
+    }
+
+    /**
+     * Preloads and exercises every supported algorithm using
+     * {@link #DEFAULT_WARM_UP_ITERATIONS} iterations each.
+     *
+     * @throws IllegalStateException If a supported algorithm is not available
+     *                               in this JVM.
+     */
+    public static void warmUp() {
+        warmUp(DEFAULT_WARM_UP_ITERATIONS);
+    }
+
+    /**
+     * Preloads and exercises every supported algorithm.
+     * <p>
+     * For each algorithm a generator is built on the default HMAC backend from
+     * a Base32 secret of the matching key length, which resolves the provider
+     * on the first code. Then {@code iterations} codes are generated and
+     * verified for consecutive time steps. This gives the JIT a chance to
+     * compile the generation and verification paths, but compilation is not
+     * guaranteed: it depends on the JVM's thresholds and on background compiler
+     * progress, which {@code -XX:+PrintCompilation} shows. The method is safe
+     * to call more than once and from several threads.
+     *
+     * @param iterations The number of codes to generate and verify per
+     *                   algorithm. Must be at least 1.
+     * @throws IllegalArgumentException If iterations is less than 1.
+     * @throws IllegalStateException    If a supported algorithm is not available
+     *                                  in this JVM.
+     */
+    public static void warmUp(int iterations) {
+        warmUp(iterations, HMACUtils.defaultBackend());
+    }
+
+    static void warmUp(int iterations, HMACBackend backend) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iterations must be at least 1");
+        }
+        Base32 codec = new Base32();
+        for (String algorithm : SUPPORTED_ALGORITHMS) {
+            TOTPGenerator generator = new TOTPGenerator.Builder()
+                    .withSecret(codec.encodeToString(HMACUtils.rfc6238Seed(algorithm)))
+                    .withDigits(8)
+                    .withAlgorithm(algorithm)
+                    .withBackend(backend)
+                    .build();
+            try {
+                generator.generateWithTime(59L);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Algorithm not available: " + algorithm, e.getCause());
+            }
+            for (int i = 0; i < iterations; i++) {
+                long time = 59L + 30L * i;
+                byte[] code = generator.generateWithTime(time).getBytes(StandardCharsets.US_ASCII);
+                generator.verifyWithTime(code, 0, code.length, time);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package dev.vink.jtotp;
+
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * HMAC backend calling OpenSSL's libcrypto through the Foreign Function and
+ * Memory API.
+ * <p>
+ * The library jar is a multi-release jar: on Java 22 and later the native
+ * implementation from {@code META-INF/versions/22} replaces this class. On
+ * older runtimes this class is loaded instead and always reports itself
+ * unavailable, so {@link HMACUtils#defaultBackend()} falls back to
+ * {@link JcaHMACBackend}.
+ * <p>
+ * The backend is registered through {@code META-INF/services} and is only
+ * selected when native access is enabled for the library, e.g. with
+ * {@code --enable-native-access=ALL-UNNAMED}, and libcrypto can be found. Set
+ * the {@code dev.vink.jtotp.libcrypto.path} system property to load a
+ * specific library file.
+ */
+public final class LibCryptoHMACBackend implements HMACBackend {
+
+    /**
+     * Creates the backend. Intended for {@link java.util.ServiceLoader} and for
+     * selecting the backend explicitly with
+     * {@link TOTPGenerator.Builder#withBackend(HMACBackend)}.
+     */
+    public LibCryptoHMACBackend() {
+    }
+
+    @Override
+    public String name() {
+        return "libcrypto";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return false;
+    }
+
+    /**
+     * Returns the number of native contexts allocated by this backend, which is
+     * always zero on this runtime.
+     *
+     * @return The number of live native contexts.
+     */
+    static int liveContexts() {
+        return 0;
+    }
+
+    @Override
+    public Context init(byte[] key, String algorithm) throws NoSuchAlgorithmException {
+        throw new NoSuchAlgorithmException("The libcrypto backend requires Java 22 or later");
+    }
+}
@@ -0,0 +1,151 @@
+package dev.vink.jtotp;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summarizes the jTOTP events of a JDK Flight Recorder recording into
+ * per-phase latency breakdowns.
+ * <p>
+ * Phases are the event types (generation, verification, credential set
+ * verification, HMAC computation, key initialization, secret decoding and
+ * errors), split by algorithm where the event records one. Run from the
+ * command line with the recording file as the only argument:
+ * <pre>
+ * java -cp jtotp.jar dev.vink.jtotp.RecordingAnalyzer recording.jfr
+ * </pre>
+ */
+public final class RecordingAnalyzer {
+
+    /**
+     * Latency summary of a single phase.
+     */
+    public static final class PhaseSummary {
+        private final String phase;
+        private final long[] sortedNanos;
+        private final long totalNanos;
+
+        private PhaseSummary(String phase, List<Long> nanos) {
+            this.phase = phase;
+            this.sortedNanos = nanos.stream().mapToLong(Long::longValue).sorted().toArray();
+            long total = 0;
+            for (long n : sortedNanos) {
+                total += n;
+            }
+            this.totalNanos = total;
+        }
+
+        /**
+         * Returns the phase name, e.g. {@code HMAC [HmacSHA1]}.
+         *
+         * @return The phase name.
+         */
+        public String getPhase() {
+            return phase;
+        }
+
+        /**
+         * Returns the number of events recorded for the phase.
+         *
+         * @return The event count.
+         */
+        public int getCount() {
+            return sortedNanos.length;
+        }
+
+        /**
+         * Returns the total time spent in the phase.
+         *
+         * @return The total duration in nanoseconds.
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Returns a percentile of the phase durations.
+         *
+         * @param percentile The percentile, between 0 and 100.
+         * @return The duration in nanoseconds.
+         */
+        public long getPercentileNanos(double percentile) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))];
+        }
+
+        /**
+         * Returns the longest duration of the phase.
+         *
+         * @return The duration in nanoseconds.
+         */
+        public long getMaxNanos() {
+            return sortedNanos.length == 0 ? 0 : sortedNanos[sortedNanos.length - 1];
+        }
+    }
+
+    private RecordingAnalyzer() {
+    }
+
+    /**
+     * Reads a recording and summarizes its jTOTP events by phase.
+     *
+     * @param recording The recording file.
+     * @return The phase summaries, ordered by phase name.
+     * @throws IOException If the recording cannot be read.
+     */
+    public static List<PhaseSummary> summarize(Path recording) throws IOException {
+        Map<String, List<Long>> durations = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String type = event.getEventType().getName();
+                if (!type.startsWith(TOTPEvents.PREFIX)) {
+                    continue;
+                }
+                String phase = type.substring(TOTPEvents.PREFIX.length());
+                if (event.hasField("algorithm") && event.getString("algorithm") != null) {
+                    phase += " [" + event.getString("algorithm") + "]";
+                }
+                durations.computeIfAbsent(phase, p -> new ArrayList<>()).add(event.getDuration().toNanos());
+            }
+        }
+
+        List<PhaseSummary> summaries = new ArrayList<>();
+        durations.forEach((phase, nanos) -> summaries.add(new PhaseSummary(phase, nanos)));
+        return Collections.unmodifiableList(summaries);
+    }
+
+    /**
+     * Prints the phase summaries of a recording.
+     *
+     * @param args The path of the recording file.
+     * @throws IOException If the recording cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: RecordingAnalyzer <recording.jfr>");
+            System.exit(1);
+        }
+        System.out.printf("%-40s %10s %12s %10s %10s %10s%n", "Phase", "Count", "Total ms", "p50 us", "p99 us", "Max us");
+        for (PhaseSummary summary : summarize(Path.of(args[0]))) {
+            System.out.printf("%-40s %10d %12.3f %10.1f %10.1f %10.1f%n",
+                    summary.getPhase(),
+                    summary.getCount(),
+                    summary.getTotalNanos() / 1e6,
+                    summary.getPercentileNanos(50) / 1e3,
+                    summary.getPercentileNanos(99) / 1e3,
+                    summary.getMaxNanos() / 1e3);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package dev.vink.jtotp;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder events for the generation and verification hot paths.
+ * <p>
+ * Events are created and committed unconditionally; when no recording is
+ * active they are disabled and the JIT removes them. Defaults keep an
+ * always-on recording cheap: hot-path events have a threshold and no stack
+ * trace. Two profiles ship with the library and can be passed to
+ * {@code -XX:StartFlightRecording:settings=...}: {@code jtotp.jfc} keeps these
+ * defaults for always-on recording, and {@code jtotp-profile.jfc} records every
+ * event while profiling.
+ * Use {@link RecordingAnalyzer} to summarize a recording.
+ * <p>
+ * The {@code jdk.jfr} module is optional. Callers obtain events through the
+ * {@code begin*} methods, which return {@code null} when the module is not in
+ * the runtime image, e.g. a jlink image without it; the event classes are then
+ * never loaded and generation works without recording.
+ */
+final class TOTPEvents {
+
+    static final String PREFIX = "dev.vink.jtotp.";
+
+    // Event classes extend jdk.jfr.Event and must not be loaded without it
+    static final boolean AVAILABLE = isJfrPresent();
+
+    private TOTPEvents() {
+    }
+
+    private static boolean isJfrPresent() {
+        try {
+            Class.forName("jdk.jfr.Event", false, TOTPEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    static Generation beginGeneration() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        Generation event = new Generation();
+        event.begin();
+        return event;
+    }
+
+    static Verification beginVerification() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        Verification event = new Verification();
+        event.begin();
+        return event;
+    }
+
+    static CredentialSetVerification beginCredentialSetVerification() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        CredentialSetVerification event = new CredentialSetVerification();
+        event.begin();
+        return event;
+    }
+
+    static HMAC beginHMAC() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        HMAC event = new HMAC();
+        event.begin();
+        return event;
+    }
+
+    static KeyInit beginKeyInit() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        KeyInit event = new KeyInit();
+        event.begin();
+        return event;
+    }
+
+    static SecretDecode beginSecretDecode() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        SecretDecode event = new SecretDecode();
+        event.begin();
+        return event;
+    }
+
+    static GenerationError generationError() {
+        return AVAILABLE ? new GenerationError() : null;
+    }
+
+    @Name(PREFIX + "Generation")
+    @Label("TOTP Generation")
+    @Description("Generation of one or more codes, including HMAC computation and truncation")
+    @Category({"jTOTP"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class Generation extends Event {
+        @Label("Algorithm")
+        String algorithm;
+
+        @Label("Digits")
+        int digits;
+
+        @Label("Period")
+        int period;
+
+        @Label("Time Counter")
+        long counter;
+
+        @Label("Codes")
+        int count;
+    }
+
+    @Name(PREFIX + "Verification")
+    @Label("TOTP Verification")
+    @Description("Comparison of a submitted code with the code for one time step")
+    @Category({"jTOTP"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class Verification extends Event {
+        @Label("Algorithm")
+        String algorithm;
+
+        @Label("Digits")
+        int digits;
+
+        @Label("Period")
+        int period;
+
+        @Label("Time Counter")
+        long counter;
+
+        @Label("Matched")
+        boolean matched;
+    }
+
+    @Name(PREFIX + "CredentialSetVerification")
+    @Label("Credential Set Verification")
+    @Description("Search of a credential set for the credential accepting a code")
+    @Category({"jTOTP"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class CredentialSetVerification extends Event {
+        @Label("Credentials")
+        int credentials;
+
+        @Label("Window")
+        int window;
+
+        @Label("Parallel")
+        boolean parallel;
+
+        @Label("Matched Credential")
+        String credentialId;
+    }
+
+    @Name(PREFIX + "HMAC")
+    @Label("HMAC Computation")
+    @Description("HMAC computation by the backend for one or more time counters")
+    @Category({"jTOTP"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class HMAC extends Event {
+        @Label("Algorithm")
+        String algorithm;
+
+        @Label("Backend")
+        String backend;
+
+        @Label("Counters")
+        int count;
+    }
+
+    @Name(PREFIX + "KeyInit")
+    @Label("HMAC Key Initialization")
+    @Description("Provider lookup and key initialization of the HMAC backend for a generator")
+    @Category({"jTOTP"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class KeyInit extends Event {
+        @Label("Algorithm")
+        String algorithm;
+
+        @Label("Backend")
+        String backend;
+    }
+
+    @Name(PREFIX + "SecretDecode")
+    @Label("Secret Decoding")
+    @Description("Base32 decoding of the shared secret")
+    @Category({"jTOTP"})
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class SecretDecode extends Event {
+        @Label("Key Size")
+        @DataAmount
+        int keySize;
+    }
+
+    @Name(PREFIX + "GenerationError")
+    @Label("TOTP Generation Error")
+    @Description("Exception wrapped as \"Error generating TOTP\"")
+    @Category({"jTOTP"})
+    static final class GenerationError extends Event {
+        @Label("Algorithm")
+        String algorithm;
+
+        @Label("Exception Class")
+        String exceptionClass;
+
+        @Label("Message")
+        String message;
+    }
+}
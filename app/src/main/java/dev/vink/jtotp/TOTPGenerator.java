@@ -3,6 +3,7 @@ package dev.vink.jtotp;
 import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.Base64;
+import java.util.Objects;
 
 import org.apache.commons.codec.binary.Base32;
 
@@ -15,12 +16,101 @@ public class TOTPGenerator {
     private final int digits;
     private final String algorithm;
     private final int period;
+    private final byte[] keyBytes;
+    private final HMACBackend backend;
+    private volatile HMACBackend.Context hmacContext;
+
+    private static final int[] POWERS_OF_TEN = {
+            1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000
+    };
 
     private TOTPGenerator(Builder builder) {
         this.secret = builder.secret;
         this.digits = builder.digits;
         this.algorithm = builder.algorithm;
         this.period = builder.period;
+        // Decode the secret using Base32 once, rather than on every generation
+        TOTPEvents.SecretDecode decodeEvent = TOTPEvents.beginSecretDecode();
+        this.keyBytes = new Base32().decode(secret);
+        if (decodeEvent != null && decodeEvent.shouldCommit()) {
+            decodeEvent.keySize = keyBytes.length;
+            decodeEvent.commit();
+        }
+        this.backend = builder.backend != null ? builder.backend : HMACUtils.defaultBackend();
+    }
+
+    /**
+     * Returns the HMAC backend used for generation.
+     *
+     * @return The backend.
+     */
+    public HMACBackend getBackend() {
+        return backend;
+    }
+
+    private HMACBackend.Context hmacContext() throws Exception {
+        // Racing threads may both initialize; either context is equivalent
+        HMACBackend.Context context = hmacContext;
+        if (context == null) {
+            TOTPEvents.KeyInit event = TOTPEvents.beginKeyInit();
+            context = backend.init(keyBytes, algorithm);
+            hmacContext = context;
+            if (event != null && event.shouldCommit()) {
+                event.algorithm = algorithm;
+                event.backend = backend.name();
+                event.commit();
+            }
+        }
+        return context;
+    }
+
+    private RuntimeException generationError(Exception e) {
+        TOTPEvents.GenerationError event = TOTPEvents.generationError();
+        if (event != null && event.isEnabled()) {
+            event.algorithm = algorithm;
+            event.exceptionClass = e.getClass().getName();
+            event.message = e.getMessage();
+            event.commit();
+        }
+        return new RuntimeException("Error generating TOTP", e);
+    }
+
+    private void commitGeneration(TOTPEvents.Generation event, long fromCounter, int count) {
+        if (event != null && event.shouldCommit()) {
+            event.algorithm = algorithm;
+            event.digits = digits;
+            event.period = period;
+            event.counter = fromCounter;
+            event.count = count;
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the number of digits of the generated codes.
+     *
+     * @return The number of digits.
+     */
+    public int getDigits() {
+        return digits;
+    }
+
+    /**
+     * Returns the HMAC algorithm used for generation.
+     *
+     * @return The algorithm name (e.g., HmacSHA1, HmacSHA256, HmacSHA512).
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the time period of a single time step.
+     *
+     * @return The time period in seconds.
+     */
+    public int getPeriod() {
+        return period;
     }
 
     private String generate(long timeCounter) {
@@ -28,44 +118,108 @@ public class TOTPGenerator {
             throw new IllegalArgumentException("Secret and digits must be set before generating TOTP.");
         }
 
+        TOTPEvents.Generation event = TOTPEvents.beginGeneration();
+        String code = String.format("%0" + digits + "d", generateCode(timeCounter));
+        commitGeneration(event, timeCounter, 1);
+        return code;
+    }
+
+    /**
+     * Generates the code for a time step as an integer, without formatting.
+     *
+     * @param timeCounter The time step (Unix time divided by the period).
+     * @return The code as an integer.
+     */
+    int generateCode(long timeCounter) {
         try {
-            // Decode the secret using Base32
-            Base32 codec = new Base32();
-            byte[] keyBytes = codec.decode(secret);
+            HMACBackend.Context context = hmacContext();
+            TOTPEvents.HMAC event = TOTPEvents.beginHMAC();
+            // Calculate HMAC of the big-endian time counter with the keyed context of this generator
+            byte[] hmac = context.computeCounter(timeCounter);
+            if (event != null && event.shouldCommit()) {
+                event.algorithm = algorithm;
+                event.backend = backend.name();
+                event.count = 1;
+                event.commit();
+            }
 
-            // Convert timeCounter to an 8-byte array in big-endian format
-            ByteBuffer buffer = ByteBuffer.allocate(8);
-            buffer.putLong(timeCounter);
-            byte[] timeBytes = buffer.array();
+            return truncate(hmac);
+        } catch (Exception e) {
+            throw generationError(e);
+        }
+    }
 
-            // Calculate HMAC
-            byte[] hmac = HMACUtils.calculateHMAC(keyBytes, timeBytes, algorithm);
+    /**
+     * Applies RFC 4226 dynamic truncation to an HMAC value.
+     *
+     * @param hmac The HMAC of the time counter.
+     * @return The code as an integer in the range [0, 10^digits).
+     */
+    private int truncate(byte[] hmac) {
+        // Extract dynamic offset
+        byte lastByte = hmac[hmac.length - 1];
+        byte mask = 0xf;
+        byte offset = (byte) (lastByte & mask);
 
-            // Extract dynamic offset
-            byte lastByte = hmac[hmac.length - 1];
-            byte mask = 0xf;
-            byte offset = (byte) (lastByte & mask);
+        if (offset + 4 > hmac.length) {
+            throw new IllegalArgumentException("Invalid offset: HMAC does not contain enough bytes.");
+        }
 
-            if (offset + 4 > hmac.length) {
-                throw new IllegalArgumentException("Invalid offset: HMAC does not contain enough bytes.");
-            }
+        // Extract 4 bytes starting from the offset
+        int DBC1 = ((hmac[offset] & 0xff) << 24)
+                | ((hmac[offset + 1] & 0xff) << 16)
+                | ((hmac[offset + 2] & 0xff) << 8)
+                | (hmac[offset + 3] & 0xff);
 
-            // Extract 4 bytes starting from the offset
-            byte[] extractBytes = new byte[4];
-            System.arraycopy(hmac, offset, extractBytes, 0, 4);
-            ByteBuffer buff = ByteBuffer.wrap(extractBytes);
-            int DBC1 = buff.getInt();
+        // Convert signed DBC1 to unsigned 31-bit integer
+        int DBC2 = DBC1 & 0x7FFFFFFF;
 
-            // Convert signed DBC1 to unsigned 31-bit integer
-            int DBC2 = DBC1 & 0x7FFFFFFF;
+        // Generate HOTP = DBC2 Modulo 10^digits
+        return digits < POWERS_OF_TEN.length ? DBC2 % POWERS_OF_TEN[digits] : DBC2;
+    }
 
-            // Generate HOTP = DBC2 Modulo 10^digits
-            long HOTP = (long) (DBC2 % Math.pow(10, digits));
+    /**
+     * Generates the codes for a contiguous range of time steps.
+     * <p>
+     * The backend context is resolved once and each HMAC is truncated as soon as
+     * it is computed into the backend's per-thread buffer, so the only
+     * allocation proportional to the range is the returned array. This is
+     * considerably cheaper than calling {@link #generateWithTime(long)} for
+     * every step.
+     *
+     * @param fromCounter The first time step (Unix time divided by the period).
+     * @param count       The number of consecutive time steps to generate.
+     * @return The codes as integers; element {@code i} is the code for time step
+     *         {@code fromCounter + i}.
+     * @throws IllegalArgumentException If count is negative.
+     */
+    public int[] generateRange(long fromCounter, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative.");
+        }
+        int[] codes = new int[count];
+        if (count == 0) {
+            return codes;
+        }
 
-            return String.format("%0" + digits + "d", HOTP);
+        TOTPEvents.Generation event = TOTPEvents.beginGeneration();
+        try {
+            HMACBackend.Context context = hmacContext();
+            TOTPEvents.HMAC hmacEvent = TOTPEvents.beginHMAC();
+            for (int i = 0; i < count; i++) {
+                codes[i] = truncate(context.computeCounter(fromCounter + i));
+            }
+            if (hmacEvent != null && hmacEvent.shouldCommit()) {
+                hmacEvent.algorithm = algorithm;
+                hmacEvent.backend = backend.name();
+                hmacEvent.count = count;
+                hmacEvent.commit();
+            }
         } catch (Exception e) {
-            throw new RuntimeException("Error generating TOTP", e);
+            throw generationError(e);
         }
+        commitGeneration(event, fromCounter, count);
+        return codes;
     }
 
     /**
@@ -124,6 +278,116 @@ public class TOTPGenerator {
         return generate(timeCounter);
     }
 
+    /**
+     * Verifies an ASCII-encoded code against the current time step.
+     *
+     * @param code   The array holding the code as ASCII digits.
+     * @param offset The index of the first digit.
+     * @param length The number of bytes holding the code.
+     * @return {@code true} if the code matches the current TOTP.
+     * @throws IndexOutOfBoundsException If the slice is outside the array.
+     */
+    public boolean verify(byte[] code, int offset, int length) {
+        return verifyWithTime(code, offset, length, Instant.now().getEpochSecond());
+    }
+
+    /**
+     * Verifies an ASCII-encoded code against the current time step.
+     * <p>
+     * The buffer is read with absolute gets, so its position and limit are left
+     * unchanged.
+     *
+     * @param code     The buffer holding the code as ASCII digits.
+     * @param position The index of the first digit.
+     * @param length   The number of bytes holding the code.
+     * @return {@code true} if the code matches the current TOTP.
+     * @throws IndexOutOfBoundsException If the range is outside the buffer limit.
+     */
+    public boolean verify(ByteBuffer code, int position, int length) {
+        return verifyWithTime(code, position, length, Instant.now().getEpochSecond());
+    }
+
+    /**
+     * Verifies an ASCII-encoded code against the time step of a specific time.
+     * <p>
+     * The digits are parsed in place, including leading zeros, and compared with
+     * the expected code numerically in constant time. A code whose length
+     * differs from the configured digits never matches.
+     * <p>
+     * jTOTP itself allocates nothing per call once the generator's backend is
+     * initialized on the calling thread. With the default JCA backend the
+     * provider may still allocate internally; the SunJCE HMAC implementation
+     * allocates one digest-sized array per computation.
+     *
+     * @param code   The array holding the code as ASCII digits.
+     * @param offset The index of the first digit.
+     * @param length The number of bytes holding the code.
+     * @param time   The time in seconds since the Unix epoch.
+     * @return {@code true} if the code matches the TOTP for the given time.
+     * @throws IndexOutOfBoundsException If the slice is outside the array.
+     */
+    public boolean verifyWithTime(byte[] code, int offset, int length, long time) {
+        Objects.checkFromIndexSize(offset, length, code.length);
+        if (length != digits || length == 0) {
+            return false;
+        }
+        long parsed = 0;
+        int invalid = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = code[i] - '0';
+            // Accumulate rather than return early so timing does not depend on the input
+            invalid |= digit | (9 - digit);
+            parsed = parsed * 10 + digit;
+        }
+        return matches(parsed, invalid, time);
+    }
+
+    /**
+     * Verifies an ASCII-encoded code against the time step of a specific time.
+     * <p>
+     * The buffer is read with absolute gets, so its position and limit are left
+     * unchanged.
+     *
+     * @param code     The buffer holding the code as ASCII digits.
+     * @param position The index of the first digit.
+     * @param length   The number of bytes holding the code.
+     * @param time     The time in seconds since the Unix epoch.
+     * @return {@code true} if the code matches the TOTP for the given time.
+     * @throws IndexOutOfBoundsException If the range is outside the buffer limit.
+     * @see #verifyWithTime(byte[], int, int, long)
+     */
+    public boolean verifyWithTime(ByteBuffer code, int position, int length, long time) {
+        Objects.checkFromIndexSize(position, length, code.limit());
+        if (length != digits || length == 0) {
+            return false;
+        }
+        long parsed = 0;
+        int invalid = 0;
+        for (int i = position; i < position + length; i++) {
+            int digit = code.get(i) - '0';
+            invalid |= digit | (9 - digit);
+            parsed = parsed * 10 + digit;
+        }
+        return matches(parsed, invalid, time);
+    }
+
+    private boolean matches(long parsed, int invalid, long time) {
+        long timeCounter = time / period;
+        TOTPEvents.Verification event = TOTPEvents.beginVerification();
+        long expected = generateCode(timeCounter);
+        // Negative invalid means a byte outside '0'-'9' was seen
+        boolean matched = ((parsed ^ expected) | (invalid >>> 31)) == 0;
+        if (event != null && event.shouldCommit()) {
+            event.algorithm = algorithm;
+            event.digits = digits;
+            event.period = period;
+            event.counter = timeCounter;
+            event.matched = matched;
+            event.commit();
+        }
+        return matched;
+    }
+
     /**
      * Builder class for constructing instances of TOTPGenerator.
      */
@@ -132,6 +396,7 @@ public class TOTPGenerator {
         private int digits = 6; // Default to 6 digits
         private String algorithm = "HmacSHA1"; // Default algorithm
         private int period = 30; // Default period in seconds
+        private HMACBackend backend; // Resolved to HMACUtils.defaultBackend() when unset
 
         /**
          * Sets the shared secret for the TOTP generation.
@@ -225,6 +490,38 @@ public class TOTPGenerator {
             return this;
         }
 
+        /**
+         * Sets the HMAC backend for the TOTP generation.
+         *
+         * @param backend The backend to use, or null for
+         *                {@link HMACUtils#defaultBackend()}.
+         * @return The current Builder instance.
+         */
+        public Builder withBackend(HMACBackend backend) {
+            this.backend = backend;
+            return this;
+        }
+
+        String getSecret() {
+            return secret;
+        }
+
+        int getDigits() {
+            return digits;
+        }
+
+        String getAlgorithm() {
+            return algorithm;
+        }
+
+        int getPeriod() {
+            return period;
+        }
+
+        HMACBackend getBackend() {
+            return backend;
+        }
+
         /**
          * Builds and returns a TOTPGenerator instance.
          *
@@ -0,0 +1,77 @@
+package example.app;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dev.vink.jtotp.HMACBackend;
+import dev.vink.jtotp.HMACUtils;
+import dev.vink.jtotp.JcaHMACBackend;
+import dev.vink.jtotp.Jtotp;
+import dev.vink.jtotp.LibCryptoHMACBackend;
+
+/**
+ * Compares the HMAC backends on single-counter and batch computation for
+ * every supported algorithm.
+ * <p>
+ * Run with the {@code hmacBackendBenchmark} Gradle task, which uses a Java 22
+ * runtime with native access enabled so the libcrypto backend is measured
+ * alongside JCA.
+ */
+public class HMACBackendBenchmark {
+    private static final int BATCH = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        List<HMACBackend> backends = new ArrayList<>();
+        backends.add(JcaHMACBackend.INSTANCE);
+        LibCryptoHMACBackend libCrypto = new LibCryptoHMACBackend();
+        if (libCrypto.isAvailable()) {
+            backends.add(libCrypto);
+        } else {
+            System.out.println("libcrypto backend not available; run on Java 22+ with --enable-native-access");
+        }
+        System.out.println("Default backend: " + HMACUtils.defaultBackend().name());
+
+        System.out.printf("%-12s %-10s %14s %14s%n", "Algorithm", "Backend", "single ns/op", "batch ns/op");
+        for (String algorithm : Jtotp.SUPPORTED_ALGORITHMS) {
+            byte[] key = new byte[HMACUtils.SHA512_ALGORITHM.equals(algorithm) ? 64 : 32];
+            for (HMACBackend backend : backends) {
+                HMACBackend.Context context = backend.init(key, algorithm);
+                // First pass warms up, second pass is measured
+                measureSingle(context, rounds);
+                measureBatch(context, rounds);
+                System.out.printf("%-12s %-10s %14.1f %14.1f%n", algorithm, backend.name(),
+                        measureSingle(context, rounds), measureBatch(context, rounds));
+            }
+        }
+    }
+
+    private static double measureSingle(HMACBackend.Context context, int rounds) {
+        int sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += context.computeCounter(i)[0];
+        }
+        long elapsed = System.nanoTime() - start;
+        consume(sink);
+        return (double) elapsed / rounds;
+    }
+
+    private static double measureBatch(HMACBackend.Context context, int rounds) {
+        int sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i += BATCH) {
+            sink += context.computeCounters(i, BATCH)[BATCH - 1][0];
+        }
+        long elapsed = System.nanoTime() - start;
+        consume(sink);
+        return (double) elapsed / rounds;
+    }
+
+    private static void consume(int sink) {
+        if (sink == 42) {
+            System.out.print("");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package example.app;
+
+import java.lang.management.ManagementFactory;
+
+import dev.vink.jtotp.Jtotp;
+import dev.vink.jtotp.TOTPGenerator;
+
+/**
+ * Measures time-to-first-code in a fresh JVM.
+ * <p>
+ * Run with {@code --warm-up} to call {@link Jtotp#warmUp()} before the first
+ * code is generated. Combine with the {@code startupBenchmark} Gradle task to
+ * compare runs with and without the AppCDS archive.
+ */
+public class StartupBenchmark {
+    public static void main(String[] args) {
+        boolean warmUp = args.length > 0 && "--warm-up".equals(args[0]);
+        long start = System.nanoTime();
+
+        long warmUpNanos = 0;
+        if (warmUp) {
+            Jtotp.warmUp();
+            warmUpNanos = System.nanoTime() - start;
+        }
+
+        long firstCodeStart = System.nanoTime();
+        TOTPGenerator generator = new TOTPGenerator.Builder()
+                .withSecret("JBSWY3DPEHPK3PXP")
+                .build();
+        String code = generator.now();
+        long firstCodeNanos = System.nanoTime() - firstCodeStart;
+
+        // Read JVM uptime last so the management classes are not part of the measurement
+        long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+
+        System.out.println("Code: " + code);
+        System.out.printf("Warm-up: %s, %.3f ms%n", warmUp ? "on" : "off", warmUpNanos / 1e6);
+        System.out.printf("First code: %.3f ms%n", firstCodeNanos / 1e6);
+        System.out.printf("JVM uptime at first code: %d ms%n", uptimeMillis);
+    }
+}
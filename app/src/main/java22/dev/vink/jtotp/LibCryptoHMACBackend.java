@@ -0,0 +1,383 @@
+package dev.vink.jtotp;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.lang.ref.Cleaner;
+import java.lang.ref.Reference;
+import java.nio.ByteOrder;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HMAC backend calling OpenSSL's libcrypto through the Foreign Function and
+ * Memory API.
+ * <p>
+ * Each context keeps a keyed {@code HMAC_CTX} off-heap as a prototype and
+ * copies it once per thread, together with an off-heap scratch segment for the
+ * counter and the result. Computing a code resets the thread's context to its
+ * key and costs three downcalls ({@code HMAC_Init_ex}, {@code HMAC_Update},
+ * {@code HMAC_Final}); batches reuse the thread state across counters. The
+ * prototype is freed when the generator's context becomes unreachable and each
+ * thread's copy when its thread state does, e.g. after the thread has ended, so
+ * short-lived threads do not accumulate native memory.
+ * <p>
+ * The backend is only available when native access is enabled for the
+ * library, e.g. with {@code --enable-native-access=ALL-UNNAMED}, and
+ * libcrypto 1.1 or later can be found. Set the
+ * {@code dev.vink.jtotp.libcrypto.path} system property to load a specific
+ * library file.
+ */
+public final class LibCryptoHMACBackend implements HMACBackend {
+
+    /**
+     * Creates the backend. Intended for {@link java.util.ServiceLoader} and for
+     * selecting the backend explicitly with
+     * {@link TOTPGenerator.Builder#withBackend(HMACBackend)}.
+     */
+    public LibCryptoHMACBackend() {
+    }
+
+    @Override
+    public String name() {
+        return "libcrypto";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return LibCrypto.AVAILABLE;
+    }
+
+    /**
+     * Returns the number of native {@code HMAC_CTX} instances currently
+     * allocated by this backend, across all generators and threads.
+     *
+     * @return The number of live native contexts.
+     */
+    static int liveContexts() {
+        return LibCrypto.LIVE_CONTEXTS.get();
+    }
+
+    @Override
+    public Context init(byte[] key, String algorithm) throws NoSuchAlgorithmException, InvalidKeyException {
+        if (!LibCrypto.AVAILABLE) {
+            throw new NoSuchAlgorithmException("libcrypto is not available");
+        }
+        if (key == null || key.length == 0) {
+            throw new InvalidKeyException("Empty key");
+        }
+        MemorySegment md;
+        int macLength;
+        switch (algorithm) {
+            case HMACUtils.SHA1_ALGORITHM:
+                md = LibCrypto.call(LibCrypto.EVP_SHA1);
+                macLength = 20;
+                break;
+            case HMACUtils.SHA256_ALGORITHM:
+                md = LibCrypto.call(LibCrypto.EVP_SHA256);
+                macLength = 32;
+                break;
+            case HMACUtils.SHA512_ALGORITHM:
+                md = LibCrypto.call(LibCrypto.EVP_SHA512);
+                macLength = 64;
+                break;
+            default:
+                throw new NoSuchAlgorithmException("Algorithm " + algorithm + " not available");
+        }
+        return new NativeContext(key, md, macLength);
+    }
+
+    /**
+     * Bindings to the libcrypto functions used by the backend. Handles are
+     * static final so that the JIT can inline the downcalls.
+     */
+    private static final class LibCrypto {
+        private static final MethodHandle HMAC_CTX_NEW;
+        private static final MethodHandle HMAC_CTX_FREE;
+        private static final MethodHandle HMAC_CTX_COPY;
+        private static final MethodHandle HMAC_INIT_EX;
+        private static final MethodHandle HMAC_UPDATE;
+        private static final MethodHandle HMAC_FINAL;
+        private static final MethodHandle EVP_SHA1;
+        private static final MethodHandle EVP_SHA256;
+        private static final MethodHandle EVP_SHA512;
+        private static final boolean AVAILABLE;
+        private static final AtomicInteger LIVE_CONTEXTS = new AtomicInteger();
+
+        private static final String[] LIBRARY_NAMES = {
+                "libcrypto.so.3", "libcrypto.so.1.1", "libcrypto.so", "libcrypto.3.dylib", "libcrypto.dylib"
+        };
+
+        static {
+            MethodHandle[] handles = bind();
+            AVAILABLE = handles != null;
+            HMAC_CTX_NEW = AVAILABLE ? handles[0] : null;
+            HMAC_CTX_FREE = AVAILABLE ? handles[1] : null;
+            HMAC_CTX_COPY = AVAILABLE ? handles[2] : null;
+            HMAC_INIT_EX = AVAILABLE ? handles[3] : null;
+            HMAC_UPDATE = AVAILABLE ? handles[4] : null;
+            HMAC_FINAL = AVAILABLE ? handles[5] : null;
+            EVP_SHA1 = AVAILABLE ? handles[6] : null;
+            EVP_SHA256 = AVAILABLE ? handles[7] : null;
+            EVP_SHA512 = AVAILABLE ? handles[8] : null;
+        }
+
+        private LibCrypto() {
+        }
+
+        private static MethodHandle[] bind() {
+            // Without native access, binding would print a warning or fail; treat it as unavailable
+            if (!LibCryptoHMACBackend.class.getModule().isNativeAccessEnabled()) {
+                return null;
+            }
+            try {
+                SymbolLookup lookup = lookupLibrary();
+                if (lookup == null) {
+                    return null;
+                }
+                Linker linker = Linker.nativeLinker();
+                ValueLayout address = ValueLayout.ADDRESS;
+                ValueLayout cInt = ValueLayout.JAVA_INT;
+                ValueLayout sizeT = ValueLayout.JAVA_LONG;
+                return new MethodHandle[] {
+                        bind(linker, lookup, "HMAC_CTX_new", FunctionDescriptor.of(address)),
+                        bind(linker, lookup, "HMAC_CTX_free", FunctionDescriptor.ofVoid(address)),
+                        bind(linker, lookup, "HMAC_CTX_copy", FunctionDescriptor.of(cInt, address, address)),
+                        bind(linker, lookup, "HMAC_Init_ex",
+                                FunctionDescriptor.of(cInt, address, address, cInt, address, address)),
+                        bind(linker, lookup, "HMAC_Update", FunctionDescriptor.of(cInt, address, address, sizeT)),
+                        bind(linker, lookup, "HMAC_Final", FunctionDescriptor.of(cInt, address, address, address)),
+                        bind(linker, lookup, "EVP_sha1", FunctionDescriptor.of(address)),
+                        bind(linker, lookup, "EVP_sha256", FunctionDescriptor.of(address)),
+                        bind(linker, lookup, "EVP_sha512", FunctionDescriptor.of(address))
+                };
+            } catch (RuntimeException | LinkageError e) {
+                return null;
+            }
+        }
+
+        private static SymbolLookup lookupLibrary() {
+            String path = System.getProperty("dev.vink.jtotp.libcrypto.path");
+            String[] names = path != null ? new String[] {path} : LIBRARY_NAMES;
+            for (String name : names) {
+                try {
+                    return SymbolLookup.libraryLookup(name, Arena.global());
+                } catch (IllegalArgumentException e) {
+                    // Not found under this name, try the next one
+                }
+            }
+            return null;
+        }
+
+        private static MethodHandle bind(Linker linker, SymbolLookup lookup, String name,
+                FunctionDescriptor descriptor) {
+            Optional<MemorySegment> symbol = lookup.find(name);
+            if (symbol.isEmpty()) {
+                throw new IllegalArgumentException("Symbol not found: " + name);
+            }
+            return linker.downcallHandle(symbol.get(), descriptor);
+        }
+
+        private static MemorySegment call(MethodHandle evpMd) throws NoSuchAlgorithmException {
+            try {
+                MemorySegment md = (MemorySegment) evpMd.invokeExact();
+                if (md.equals(MemorySegment.NULL)) {
+                    throw new NoSuchAlgorithmException("Digest not available in libcrypto");
+                }
+                return md;
+            } catch (NoSuchAlgorithmException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("libcrypto call failed", e);
+            }
+        }
+
+        private static MemorySegment newContext() {
+            try {
+                MemorySegment ctx = (MemorySegment) HMAC_CTX_NEW.invokeExact();
+                if (ctx.equals(MemorySegment.NULL)) {
+                    throw new IllegalStateException("HMAC_CTX_new failed");
+                }
+                LIVE_CONTEXTS.incrementAndGet();
+                return ctx;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("libcrypto call failed", e);
+            }
+        }
+
+        private static void freeContext(MemorySegment ctx) {
+            try {
+                HMAC_CTX_FREE.invokeExact(ctx);
+                LIVE_CONTEXTS.decrementAndGet();
+            } catch (Throwable e) {
+                throw new IllegalStateException("libcrypto call failed", e);
+            }
+        }
+
+        private static void check(int result, String function) {
+            if (result != 1) {
+                throw new IllegalStateException(function + " failed");
+            }
+        }
+    }
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private static final ValueLayout.OfLong COUNTER_LAYOUT =
+            ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    // Scratch layout per thread: counter, result, result length
+    private static final long COUNTER_OFFSET = 0;
+    private static final long RESULT_OFFSET = 8;
+    private static final long LENGTH_OFFSET = RESULT_OFFSET + 64;
+    private static final long SCRATCH_SIZE = LENGTH_OFFSET + 4;
+
+    private static final class NativeContext implements Context {
+        private final MemorySegment prototype;
+        private final int macLength;
+        private final ThreadLocal<ThreadState> threadState;
+
+        private NativeContext(byte[] key, MemorySegment md, int macLength) {
+            this.macLength = macLength;
+            this.prototype = LibCrypto.newContext();
+            CLEANER.register(this, new FreeContext(prototype));
+
+            // The key only lives off-heap until OpenSSL has copied it into the context
+            try (Arena arena = Arena.ofConfined()) {
+                MemorySegment keySegment = arena.allocate(key.length);
+                MemorySegment.copy(key, 0, keySegment, ValueLayout.JAVA_BYTE, 0, key.length);
+                try {
+                    LibCrypto.check((int) LibCrypto.HMAC_INIT_EX.invokeExact(prototype, keySegment, key.length,
+                            md, MemorySegment.NULL), "HMAC_Init_ex");
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException("libcrypto call failed", e);
+                } finally {
+                    keySegment.fill((byte) 0);
+                }
+            }
+            this.threadState = ThreadLocal.withInitial(this::newThreadState);
+        }
+
+        private ThreadState newThreadState() {
+            MemorySegment ctx = LibCrypto.newContext();
+            boolean copied = false;
+            try {
+                LibCrypto.check((int) LibCrypto.HMAC_CTX_COPY.invokeExact(ctx, prototype), "HMAC_CTX_copy");
+                copied = true;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("libcrypto call failed", e);
+            } finally {
+                if (!copied) {
+                    LibCrypto.freeContext(ctx);
+                }
+            }
+            // The copy is independent of the prototype, so it is freed with the thread state alone
+            ThreadState state = new ThreadState(ctx, Arena.ofAuto().allocate(SCRATCH_SIZE, 8), macLength);
+            CLEANER.register(state, new FreeContext(ctx));
+            return state;
+        }
+
+        @Override
+        public byte[] compute(byte[] data) {
+            try (Arena arena = Arena.ofConfined()) {
+                MemorySegment input = arena.allocate(Math.max(1, data.length));
+                MemorySegment.copy(data, 0, input, ValueLayout.JAVA_BYTE, 0, data.length);
+                ThreadState state = threadState.get();
+                byte[] hmac = new byte[macLength];
+                mac(state, input, data.length, hmac);
+                return hmac;
+            } finally {
+                Reference.reachabilityFence(this);
+            }
+        }
+
+        @Override
+        public byte[] computeCounter(long counter) {
+            try {
+                ThreadState state = threadState.get();
+                state.counter.set(COUNTER_LAYOUT, 0, counter);
+                mac(state, state.counter, 8, state.hmac);
+                return state.hmac;
+            } finally {
+                Reference.reachabilityFence(this);
+            }
+        }
+
+        @Override
+        public byte[][] computeCounters(long fromCounter, int count) {
+            try {
+                ThreadState state = threadState.get();
+                byte[][] hmacs = new byte[count][];
+                for (int i = 0; i < count; i++) {
+                    state.counter.set(COUNTER_LAYOUT, 0, fromCounter + i);
+                    hmacs[i] = new byte[macLength];
+                    mac(state, state.counter, 8, hmacs[i]);
+                }
+                return hmacs;
+            } finally {
+                Reference.reachabilityFence(this);
+            }
+        }
+
+        private static void mac(ThreadState state, MemorySegment input, long length, byte[] out) {
+            try {
+                // A null key and digest reset the context to the key it was initialized with
+                LibCrypto.check((int) LibCrypto.HMAC_INIT_EX.invokeExact(state.ctx, MemorySegment.NULL, 0,
+                        MemorySegment.NULL, MemorySegment.NULL), "HMAC_Init_ex");
+                LibCrypto.check((int) LibCrypto.HMAC_UPDATE.invokeExact(state.ctx, input, length), "HMAC_Update");
+                LibCrypto.check((int) LibCrypto.HMAC_FINAL.invokeExact(state.ctx, state.result, state.length),
+                        "HMAC_Final");
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("libcrypto call failed", e);
+            } finally {
+                Reference.reachabilityFence(state);
+            }
+            MemorySegment.copy(state.result, ValueLayout.JAVA_BYTE, 0, out, 0, out.length);
+        }
+    }
+
+    // Keyed native context and scratch segments confined to one thread
+    private static final class ThreadState {
+        private final MemorySegment ctx;
+        private final MemorySegment counter;
+        private final MemorySegment result;
+        private final MemorySegment length;
+        private final byte[] hmac;
+
+        private ThreadState(MemorySegment ctx, MemorySegment scratch, int macLength) {
+            this.ctx = ctx;
+            this.counter = scratch.asSlice(COUNTER_OFFSET, 8);
+            this.result = scratch.asSlice(RESULT_OFFSET, 64);
+            this.length = scratch.asSlice(LENGTH_OFFSET, 4);
+            this.hmac = new byte[macLength];
+        }
+    }
+
+    // Frees one native context once its owner is unreachable; must not reference the owner
+    private static final class FreeContext implements Runnable {
+        private final MemorySegment ctx;
+
+        private FreeContext(MemorySegment ctx) {
+            this.ctx = ctx;
+        }
+
+        @Override
+        public void run() {
+            LibCrypto.freeContext(ctx);
+        }
+    }
+}
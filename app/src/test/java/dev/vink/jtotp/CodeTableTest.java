@@ -0,0 +1,85 @@
+package dev.vink.jtotp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class CodeTableTest {
+
+    private static TOTPGenerator generator(int digits, String algorithm) {
+        return new TOTPGenerator.Builder()
+                .withSecret("JBSWY3DPEHPK3PXP")
+                .withDigits(digits)
+                .withAlgorithm(algorithm)
+                .withPeriod(30)
+                .build();
+    }
+
+    @Test
+    void LookupMatchesGenerator() {
+        TOTPGenerator generator = generator(6, HMACUtils.SHA1_ALGORITHM);
+        long from = 1111111109L / 30;
+        CodeTable table = CodeTable.create(generator, from, 500);
+
+        assertEquals(500, table.size());
+        for (int i = 0; i < table.size(); i++) {
+            long time = (from + i) * 30;
+            assertEquals(generator.generateWithTime(time), table.formattedCodeAt(from + i),
+                    "Code does not match for time step: " + (from + i));
+            assertEquals(Integer.parseInt(generator.generateWithTime(time)), table.codeAtTime(time));
+        }
+    }
+
+    @Test
+    void PackedSize(@TempDir Path dir) throws IOException {
+        CodeTable.create(generator(6, HMACUtils.SHA1_ALGORITHM), 0, 8).writeTo(dir.resolve("six"));
+        CodeTable.create(generator(8, HMACUtils.SHA256_ALGORITHM), 0, 8).writeTo(dir.resolve("eight"));
+        assertEquals(24 + 20, Files.size(dir.resolve("six")), "6 digit codes should use 20 bits");
+        assertEquals(24 + 27, Files.size(dir.resolve("eight")), "8 digit codes should use 27 bits");
+    }
+
+    @Test
+    void WriteAndMap(@TempDir Path dir) throws IOException {
+        TOTPGenerator generator = generator(8, HMACUtils.SHA512_ALGORITHM);
+        CodeTable table = CodeTable.create(generator, 1000, 2880);
+        Path file = dir.resolve("codes.bin");
+        table.writeTo(file);
+
+        CodeTable mapped = CodeTable.map(file);
+        assertEquals(HMACUtils.SHA512_ALGORITHM, mapped.getAlgorithm());
+        assertEquals(8, mapped.getDigits());
+        assertEquals(30, mapped.getPeriod());
+        assertEquals(1000, mapped.getFromCounter());
+        assertEquals(2880, mapped.size());
+        for (long counter = 1000; counter < 1000 + 2880; counter++) {
+            assertEquals(table.codeAt(counter), mapped.codeAt(counter));
+        }
+    }
+
+    @Test
+    void OutOfRangeLookup() {
+        CodeTable table = CodeTable.create(generator(6, HMACUtils.SHA1_ALGORITHM), 100, 10);
+        assertThrows(IndexOutOfBoundsException.class, () -> table.codeAt(99));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.codeAt(110));
+    }
+
+    @Test
+    void InvalidDigits() {
+        for (int digits : new int[] {0, -1, 128}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> CodeTable.create(generator(digits, HMACUtils.SHA1_ALGORITHM), 0, 1));
+            assertTrue(e.getMessage().startsWith("Digits must be between"), e.getMessage());
+        }
+    }
+
+    @Test
+    void InvalidFormat() {
+        assertThrows(IllegalArgumentException.class, () -> CodeTable.wrap(ByteBuffer.allocate(64)));
+    }
+}
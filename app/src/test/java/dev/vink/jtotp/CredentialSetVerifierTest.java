@@ -0,0 +1,120 @@
+package dev.vink.jtotp;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class CredentialSetVerifierTest {
+
+    private static final long TIME = 1111111109L;
+
+    private static TOTPGenerator generator(String secret, String algorithm, int digits, int period) {
+        return new TOTPGenerator.Builder()
+                .withSecret(secret)
+                .withAlgorithm(algorithm)
+                .withDigits(digits)
+                .withPeriod(period)
+                .build();
+    }
+
+    @Test
+    void ReportsMatchingCredential() {
+        TOTPGenerator phone = generator(SecretKeyGenerator.generate(), HMACUtils.SHA1_ALGORITHM, 6, 30);
+        TOTPGenerator tablet = generator(SecretKeyGenerator.generate(SecretKeyGenerator.SHA256_BITS),
+                HMACUtils.SHA256_ALGORITHM, 6, 60);
+        TOTPGenerator token = generator(SecretKeyGenerator.generate(), HMACUtils.SHA1_ALGORITHM, 8, 30);
+        CredentialSetVerifier verifier = new CredentialSetVerifier.Builder()
+                .addCredential("phone", phone)
+                .addCredential("tablet", tablet)
+                .addCredential("token", token)
+                .build();
+
+        Optional<CredentialSetVerifier.Match> match = verifier.verifyWithTime(tablet.generateWithTime(TIME), TIME);
+        assertTrue(match.isPresent(), "Code from an enrolled credential should verify");
+        assertEquals("tablet", match.get().getCredentialId());
+        assertEquals(0, match.get().getDrift());
+
+        match = verifier.verifyWithTime(token.generateWithTime(TIME), TIME);
+        assertEquals("token", match.map(CredentialSetVerifier.Match::getCredentialId).orElse(null));
+    }
+
+    @Test
+    void AcceptsDriftWithinWindow() {
+        TOTPGenerator phone = generator("JBSWY3DPEHPK3PXP", HMACUtils.SHA1_ALGORITHM, 6, 30);
+        CredentialSetVerifier verifier = new CredentialSetVerifier.Builder()
+                .addCredential("phone", phone)
+                .withWindow(1)
+                .build();
+
+        Optional<CredentialSetVerifier.Match> match = verifier.verifyWithTime(phone.generateWithTime(TIME - 30), TIME);
+        assertTrue(match.isPresent(), "Previous code should verify within the window");
+        assertEquals(-1, match.get().getDrift());
+        assertFalse(verifier.verifyWithTime(phone.generateWithTime(TIME + 90), TIME).isPresent(),
+                "Code outside the window should not verify");
+    }
+
+    @Test
+    void RejectsInvalidCodes() {
+        CredentialSetVerifier verifier = new CredentialSetVerifier.Builder()
+                .addCredential("phone", generator("JBSWY3DPEHPK3PXP", HMACUtils.SHA1_ALGORITHM, 6, 30))
+                .build();
+        assertFalse(verifier.verifyWithTime(null, TIME).isPresent());
+        assertFalse(verifier.verifyWithTime("", TIME).isPresent());
+        assertFalse(verifier.verifyWithTime("12a456", TIME).isPresent());
+        assertFalse(verifier.verifyWithTime("12345678901", TIME).isPresent());
+    }
+
+    @Test
+    void ParallelMatchesSequential() {
+        CredentialSetVerifier.Builder parallel = new CredentialSetVerifier.Builder().withParallelThreshold(1);
+        CredentialSetVerifier.Builder sequential = new CredentialSetVerifier.Builder()
+                .withParallelThreshold(Integer.MAX_VALUE);
+        TOTPGenerator[] generators = new TOTPGenerator[40];
+        for (int i = 0; i < generators.length; i++) {
+            generators[i] = generator(SecretKeyGenerator.generate(), HMACUtils.SHA1_ALGORITHM, 6, i % 2 == 0 ? 30 : 60);
+            parallel.addCredential("device-" + i, generators[i]);
+            sequential.addCredential("device-" + i, generators[i]);
+        }
+        String code = generators[37].generateWithTime(TIME);
+        assertEquals(sequential.build().verifyWithTime(code, TIME).map(CredentialSetVerifier.Match::getCredentialId),
+                parallel.build().verifyWithTime(code, TIME).map(CredentialSetVerifier.Match::getCredentialId));
+    }
+
+    @Test
+    void ParallelOnSuppliedExecutor() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CredentialSetVerifier.Builder builder = new CredentialSetVerifier.Builder()
+                    .withParallelThreshold(1)
+                    .withExecutor(executor);
+            TOTPGenerator phone = generator("JBSWY3DPEHPK3PXP", HMACUtils.SHA1_ALGORITHM, 6, 30);
+            builder.addCredential("phone", phone);
+            for (int i = 0; i < 10; i++) {
+                builder.addCredential("device-" + i, generator(SecretKeyGenerator.generate(), HMACUtils.SHA1_ALGORITHM, 6, 30));
+            }
+            CredentialSetVerifier verifier = builder.build();
+
+            Optional<CredentialSetVerifier.Match> match = verifier.verifyWithTime(phone.generateWithTime(TIME - 30), TIME);
+            assertEquals("phone", match.map(CredentialSetVerifier.Match::getCredentialId).orElse(null));
+            assertEquals(-1, match.get().getDrift());
+            assertFalse(executor.isShutdown(), "Verifier should not shut down the supplied executor");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void InvalidParallelThreshold() {
+        assertThrows(IllegalArgumentException.class, () -> new CredentialSetVerifier.Builder().withParallelThreshold(0));
+        assertThrows(IllegalArgumentException.class, () -> new CredentialSetVerifier.Builder().withParallelThreshold(-1));
+    }
+
+    @Test
+    void RequiresCredentials() {
+        assertThrows(IllegalArgumentException.class, () -> new CredentialSetVerifier.Builder().build());
+    }
+}
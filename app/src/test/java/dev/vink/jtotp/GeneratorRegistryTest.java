@@ -0,0 +1,148 @@
+package dev.vink.jtotp;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+
+public class GeneratorRegistryTest {
+
+    private static final String OTP_URL = "otpauth://totp/Example:alice@google.com?secret=JBSWY3DPEHPK3PXP&algorithm=HmacSHA1&digits=6&period=30";
+
+    @Test
+    void SharesGeneratorForSameConfiguration() {
+        GeneratorRegistry registry = new GeneratorRegistry.Builder().build();
+        TOTPGenerator first = registry.fromOtpUrl(OTP_URL);
+        TOTPGenerator second = registry.fromOtpUrl(OTP_URL);
+        TOTPGenerator third = registry.get("JBSWY3DPEHPK3PXP", HMACUtils.SHA1_ALGORITHM, 6, 30);
+        assertSame(first, second, "Same OTP URL should return the shared generator");
+        assertSame(first, third, "Same configuration should return the shared generator");
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void RepeatedLookupsReuseRawInput() {
+        GeneratorRegistry registry = new GeneratorRegistry.Builder().build();
+        TOTPGenerator fromUrl = registry.fromOtpUrl(OTP_URL);
+        TOTPGenerator lowerCase = registry.get("jbswy3dpehpk3pxp", HMACUtils.SHA1_ALGORITHM, 6, 30);
+        TOTPGenerator fromBuilder = registry.get(new TOTPGenerator.Builder().withSecret("jbswy3dpehpk3pxp"));
+        for (int i = 0; i < 3; i++) {
+            assertSame(fromUrl, registry.fromOtpUrl(OTP_URL), "Repeated OTP URL should return the shared generator");
+            assertSame(fromUrl, registry.get("jbswy3dpehpk3pxp", HMACUtils.SHA1_ALGORITHM, 6, 30),
+                    "Repeated raw secret should return the shared generator");
+        }
+        assertSame(fromUrl, lowerCase, "Raw spellings should resolve to the canonical generator");
+        assertSame(fromUrl, fromBuilder, "Builder lookups should resolve to the canonical generator");
+        assertEquals(1, registry.size());
+
+        registry.clear();
+        assertNotSame(fromUrl, registry.fromOtpUrl(OTP_URL), "Clearing should also drop raw lookups");
+    }
+
+    @Test
+    void CanonicalizesSecret() {
+        GeneratorRegistry registry = new GeneratorRegistry.Builder().build();
+        TOTPGenerator canonical = registry.get("JBSWY3DPEHPK3PXP", HMACUtils.SHA1_ALGORITHM, 6, 30);
+        TOTPGenerator formatted = registry.get("jbswy3dpehpk3pxp", HMACUtils.SHA1_ALGORITHM, 6, 30);
+        assertSame(canonical, formatted, "Formatted secret should map to the canonical generator");
+
+        TOTPGenerator direct = new TOTPGenerator.Builder()
+                .withSecret("jbswy3dpehpk3pxp")
+                .build();
+        for (long time : new long[] {59L, 1111111109L, 1234567890L}) {
+            assertEquals(direct.generateWithTime(time), formatted.generateWithTime(time),
+                    "Registry generator should match a directly built generator at time: " + time);
+        }
+    }
+
+    @Test
+    void PaddingInsideSecretMatchesBuilder() {
+        GeneratorRegistry registry = new GeneratorRegistry.Builder().build();
+        String padded = "JBSWY3DP=EHPK3PXP";
+        TOTPGenerator fromRegistry = registry.get(padded, HMACUtils.SHA1_ALGORITHM, 6, 30);
+        TOTPGenerator direct = new TOTPGenerator.Builder()
+                .withSecret(padded)
+                .build();
+        TOTPGenerator full = registry.get("JBSWY3DPEHPK3PXP", HMACUtils.SHA1_ALGORITHM, 6, 30);
+
+        assertNotSame(full, fromRegistry, "Secrets decoding to different keys should not share a generator");
+        for (long time : new long[] {59L, 1111111109L, 1234567890L}) {
+            assertEquals(direct.generateWithTime(time), fromRegistry.generateWithTime(time),
+                    "Registry generator should match a directly built generator at time: " + time);
+        }
+    }
+
+    @Test
+    void SeparatesDifferentConfigurations() {
+        GeneratorRegistry registry = new GeneratorRegistry.Builder().build();
+        TOTPGenerator sha1 = registry.get("JBSWY3DPEHPK3PXP", HMACUtils.SHA1_ALGORITHM, 6, 30);
+        TOTPGenerator sha256 = registry.get("JBSWY3DPEHPK3PXP", HMACUtils.SHA256_ALGORITHM, 6, 30);
+        TOTPGenerator eightDigits = registry.get("JBSWY3DPEHPK3PXP", HMACUtils.SHA1_ALGORITHM, 8, 30);
+        TOTPGenerator sixtySeconds = registry.get("JBSWY3DPEHPK3PXP", HMACUtils.SHA1_ALGORITHM, 6, 60);
+        assertNotSame(sha1, sha256);
+        assertNotSame(sha1, eightDigits);
+        assertNotSame(sha1, sixtySeconds);
+        assertEquals(4, registry.size());
+    }
+
+    @Test
+    void KeepsRequestedBackend() {
+        HMACBackend custom = new HMACBackend() {
+            @Override
+            public String name() {
+                return "custom";
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+
+            @Override
+            public Context init(byte[] key, String algorithm) throws NoSuchAlgorithmException, InvalidKeyException {
+                return JcaHMACBackend.INSTANCE.init(key, algorithm);
+            }
+        };
+        GeneratorRegistry registry = new GeneratorRegistry.Builder().build();
+        TOTPGenerator withDefault = registry.get("JBSWY3DPEHPK3PXP", HMACUtils.SHA1_ALGORITHM, 6, 30);
+        TOTPGenerator withCustom = registry.get(new TOTPGenerator.Builder()
+                .withSecret("JBSWY3DPEHPK3PXP")
+                .withBackend(custom));
+        TOTPGenerator withExplicitDefault = registry.get(new TOTPGenerator.Builder()
+                .withSecret("JBSWY3DPEHPK3PXP")
+                .withBackend(HMACUtils.defaultBackend()));
+
+        assertSame(HMACUtils.defaultBackend(), withDefault.getBackend());
+        assertSame(custom, withCustom.getBackend(), "Registry should keep the requested backend");
+        assertNotSame(withDefault, withCustom, "Different backends should not share a generator");
+        assertSame(withDefault, withExplicitDefault, "Explicit default backend should share the generator");
+    }
+
+    @Test
+    void EvictsBySize() {
+        GeneratorRegistry registry = new GeneratorRegistry.Builder()
+                .withMaximumSize(2)
+                .withExpireAfterAccess(Duration.ofMinutes(10))
+                .withReferenceType(GeneratorRegistry.ReferenceType.SOFT)
+                .build();
+        for (int i = 0; i < 10; i++) {
+            registry.get(SecretKeyGenerator.generate(), HMACUtils.SHA1_ALGORITHM, 6, 30);
+        }
+        assertTrue(registry.size() <= 2, "Registry should not exceed its maximum size");
+        registry.clear();
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void MissingSecret() {
+        GeneratorRegistry registry = new GeneratorRegistry.Builder()
+                .withReferenceType(GeneratorRegistry.ReferenceType.WEAK)
+                .build();
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.fromOtpUrl("otpauth://totp/Example:alice@google.com?digits=6&period=30"));
+        assertThrows(IllegalArgumentException.class, () -> registry.fromOtpUrl("invalid-url-format"));
+    }
+}
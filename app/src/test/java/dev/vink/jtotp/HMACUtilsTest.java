@@ -3,12 +3,24 @@ package dev.vink.jtotp;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
 
 public class HMACUtilsTest {
 
+    @Test
+    public void testDefaultBackend_MatchesExpected() {
+        // Set by the nativeBackendTest task so that a silent fallback to JCA fails the build
+        String expected = System.getProperty("dev.vink.jtotp.expectedBackend");
+        assumeTrue(expected != null, "No expected backend configured");
+        assertEquals(expected, HMACUtils.defaultBackend().name(), "Unexpected default HMAC backend");
+    }
+
     @Test
     public void testCalculateHMAC_SHA1() throws NoSuchAlgorithmException, InvalidKeyException {
         byte[] key = "12345678901234567890".getBytes(); // Example key
@@ -66,4 +78,75 @@ public class HMACUtilsTest {
             HMACUtils.calculateHMAC(key, data, "InvalidAlgorithm");
         }, "Should throw NoSuchAlgorithmException for invalid algorithm");
     }
+
+    @Test
+    public void testDefaultBackend() {
+        HMACBackend backend = HMACUtils.defaultBackend();
+        assertNotNull(backend, "Default backend should not be null");
+        assertTrue(backend.isAvailable(), "Default backend should be available");
+        assertTrue(HMACUtils.passesSelfTest(backend), "Default backend should reproduce RFC 6238 vectors");
+    }
+
+    @Test
+    public void testSelfTest_RejectsBrokenBackend() {
+        HMACBackend broken = new HMACBackend() {
+            @Override
+            public String name() {
+                return "broken";
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+
+            @Override
+            public Context init(byte[] key, String algorithm) {
+                return data -> new byte[20];
+            }
+        };
+        assertFalse(HMACUtils.passesSelfTest(broken), "Backend with wrong output should fail the self-test");
+    }
+
+    @Test
+    public void testSelectBackend_SkipsProviderThatFailsToLoad() {
+        HMACBackend valid = new HMACBackend() {
+            @Override
+            public String name() {
+                return "valid";
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+
+            @Override
+            public Context init(byte[] key, String algorithm) throws NoSuchAlgorithmException, InvalidKeyException {
+                return JcaHMACBackend.INSTANCE.init(key, algorithm);
+            }
+        };
+        Iterator<HMACBackend> providers = new Iterator<>() {
+            private int calls;
+
+            @Override
+            public boolean hasNext() {
+                return calls < 2;
+            }
+
+            @Override
+            public HMACBackend next() {
+                if (calls++ == 0) {
+                    throw new ServiceConfigurationError("Provider could not be instantiated");
+                }
+                return valid;
+            }
+        };
+        assertSame(valid, HMACUtils.selectBackend(providers), "Providers after a broken one should still be tried");
+    }
+
+    @Test
+    public void testSelectBackend_FallsBackToJca() {
+        assertSame(JcaHMACBackend.INSTANCE, HMACUtils.selectBackend(Collections.emptyIterator()));
+    }
 }
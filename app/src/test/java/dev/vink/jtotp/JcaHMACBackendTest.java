@@ -0,0 +1,55 @@
+package dev.vink.jtotp;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+public class JcaHMACBackendTest {
+
+    @Test
+    public void testComputeMatchesCalculateHMAC() throws NoSuchAlgorithmException, InvalidKeyException {
+        byte[] key = "12345678901234567890123456789012".getBytes();
+        byte[] data = "test-data".getBytes();
+        HMACBackend.Context context = JcaHMACBackend.INSTANCE.init(key, HMACUtils.SHA256_ALGORITHM);
+
+        assertArrayEquals(HMACUtils.calculateHMAC(key, data, HMACUtils.SHA256_ALGORITHM), context.compute(data));
+        assertArrayEquals(context.compute(data), context.compute(data), "Context should be reusable");
+    }
+
+    @Test
+    public void testComputeCounters() throws NoSuchAlgorithmException, InvalidKeyException {
+        byte[] key = "12345678901234567890".getBytes();
+        HMACBackend.Context context = JcaHMACBackend.INSTANCE.init(key, HMACUtils.SHA1_ALGORITHM);
+
+        byte[][] hmacs = context.computeCounters(1000L, 16);
+        assertEquals(16, hmacs.length);
+        for (int i = 0; i < hmacs.length; i++) {
+            byte[] counter = ByteBuffer.allocate(8).putLong(1000L + i).array();
+            assertArrayEquals(HMACUtils.calculateHMAC(key, counter, HMACUtils.SHA1_ALGORITHM), hmacs[i],
+                    "Batch HMAC does not match for counter: " + (1000L + i));
+        }
+    }
+
+    @Test
+    public void testInvalidAlgorithm() {
+        assertThrows(NoSuchAlgorithmException.class, () -> {
+            JcaHMACBackend.INSTANCE.init("12345678901234567890".getBytes(), "InvalidAlgorithm");
+        }, "Should throw NoSuchAlgorithmException for invalid algorithm");
+    }
+
+    @Test
+    public void testComputeCounterReusesThreadBuffer() throws NoSuchAlgorithmException, InvalidKeyException {
+        byte[] key = "12345678901234567890".getBytes();
+        HMACBackend.Context context = JcaHMACBackend.INSTANCE.init(key, HMACUtils.SHA1_ALGORITHM);
+
+        byte[] first = context.computeCounter(1L);
+        assertArrayEquals(context.compute(ByteBuffer.allocate(8).putLong(1L).array()), first);
+        byte[] second = context.computeCounter(2L);
+        assertSame(first, second, "Single counters should be computed into the thread's buffer");
+        assertArrayEquals(context.compute(ByteBuffer.allocate(8).putLong(2L).array()), second);
+    }
+}
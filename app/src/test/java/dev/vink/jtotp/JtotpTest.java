@@ -0,0 +1,76 @@
+package dev.vink.jtotp;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class JtotpTest {
+
+    // Delegates to JCA and records what the warm-up asks of the backend
+    private static final class CountingBackend implements HMACBackend {
+        private final List<String> initialized = new CopyOnWriteArrayList<>();
+        private final AtomicInteger counters = new AtomicInteger();
+
+        @Override
+        public String name() {
+            return "counting";
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public Context init(byte[] key, String algorithm) throws NoSuchAlgorithmException, InvalidKeyException {
+            Context context = JcaHMACBackend.INSTANCE.init(key, algorithm);
+            initialized.add(algorithm);
+            return new Context() {
+                @Override
+                public byte[] compute(byte[] data) {
+                    return context.compute(data);
+                }
+
+                @Override
+                public byte[] computeCounter(long counter) {
+                    counters.incrementAndGet();
+                    return context.computeCounter(counter);
+                }
+            };
+        }
+    }
+
+    @Test
+    void WarmUpAllAlgorithms() {
+        assertDoesNotThrow(() -> Jtotp.warmUp());
+    }
+
+    @Test
+    void WarmUpInitializesAndExercisesEveryAlgorithm() {
+        CountingBackend backend = new CountingBackend();
+        Jtotp.warmUp(100, backend);
+        assertEquals(Jtotp.SUPPORTED_ALGORITHMS, backend.initialized,
+                "Each algorithm's context should be initialized once");
+        // One probe, then a generation and a verification per iteration
+        assertEquals(Jtotp.SUPPORTED_ALGORITHMS.size() * (1 + 2 * 100), backend.counters.get());
+    }
+
+    @Test
+    void WarmUpIsRepeatable() {
+        assertDoesNotThrow(() -> {
+            Jtotp.warmUp(1);
+            Jtotp.warmUp(1);
+        });
+    }
+
+    @Test
+    void WarmUpInvalidIterations() {
+        assertThrows(IllegalArgumentException.class, () -> Jtotp.warmUp(0));
+    }
+}
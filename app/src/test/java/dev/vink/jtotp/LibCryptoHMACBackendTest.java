@@ -0,0 +1,142 @@
+package dev.vink.jtotp;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.nio.ByteBuffer;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.codec.binary.Base32;
+
+/**
+ * Runs against the native implementation only on Java 22+ with native access
+ * enabled and libcrypto installed, e.g. through the nativeBackendTest task;
+ * elsewhere the availability-dependent tests are skipped.
+ */
+public class LibCryptoHMACBackendTest {
+
+    private final LibCryptoHMACBackend backend = new LibCryptoHMACBackend();
+
+    @Test
+    public void testUnavailableBackendRejectsInit() {
+        assumeTrue(!backend.isAvailable(), "libcrypto backend is available");
+        assertThrows(NoSuchAlgorithmException.class, () -> {
+            backend.init("12345678901234567890".getBytes(), HMACUtils.SHA1_ALGORITHM);
+        });
+    }
+
+    @Test
+    public void testRFC6238Vectors() {
+        assumeTrue(backend.isAvailable(), "libcrypto backend is not available");
+        assertTrue(HMACUtils.passesSelfTest(backend), "libcrypto backend should reproduce RFC 6238 vectors");
+
+        long[] timestamps = {59L, 1111111109L, 1111111111L, 1234567890L, 2000000000L, 20000000000L};
+        String[][] expected = {
+                {HMACUtils.SHA1_ALGORITHM, "94287082", "07081804", "14050471", "89005924", "69279037", "65353130"},
+                {HMACUtils.SHA256_ALGORITHM, "46119246", "68084774", "67062674", "91819424", "90698825", "77737706"},
+                {HMACUtils.SHA512_ALGORITHM, "90693936", "25091201", "99943326", "93441116", "38618901", "47863826"}
+        };
+        for (String[] vector : expected) {
+            TOTPGenerator generator = new TOTPGenerator.Builder()
+                    .withSecret(new Base32().encodeToString(HMACUtils.rfc6238Seed(vector[0])))
+                    .withDigits(8)
+                    .withAlgorithm(vector[0])
+                    .withBackend(backend)
+                    .build();
+            for (int i = 0; i < timestamps.length; i++) {
+                assertEquals(vector[i + 1], generator.generateWithTime(timestamps[i]),
+                        vector[0] + " TOTP does not match for timestamp: " + timestamps[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesJca() throws NoSuchAlgorithmException, InvalidKeyException {
+        assumeTrue(backend.isAvailable(), "libcrypto backend is not available");
+        byte[] key = "an arbitrary key that is longer than one SHA-1 block of 64 bytes!!".getBytes();
+        for (String algorithm : Jtotp.SUPPORTED_ALGORITHMS) {
+            HMACBackend.Context nativeContext = backend.init(key, algorithm);
+            HMACBackend.Context jcaContext = JcaHMACBackend.INSTANCE.init(key, algorithm);
+
+            byte[] data = "test-data".getBytes();
+            assertArrayEquals(jcaContext.compute(data), nativeContext.compute(data), algorithm);
+            assertArrayEquals(jcaContext.computeCounter(42L).clone(), nativeContext.computeCounter(42L), algorithm);
+
+            byte[][] expected = jcaContext.computeCounters(1000L, 64);
+            byte[][] actual = nativeContext.computeCounters(1000L, 64);
+            for (int i = 0; i < expected.length; i++) {
+                assertArrayEquals(expected[i], actual[i], algorithm + " batch HMAC does not match at: " + i);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentUse() throws Exception {
+        assumeTrue(backend.isAvailable(), "libcrypto backend is not available");
+        byte[] key = "12345678901234567890".getBytes();
+        HMACBackend.Context context = backend.init(key, HMACUtils.SHA1_ALGORITHM);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                long offset = t * 10_000L;
+                results.add(executor.submit(() -> {
+                    for (long counter = offset; counter < offset + 1_000; counter++) {
+                        byte[] data = ByteBuffer.allocate(8).putLong(counter).array();
+                        byte[] expected = HMACUtils.calculateHMAC(key, data, HMACUtils.SHA1_ALGORITHM);
+                        if (!Arrays.equals(expected, context.computeCounter(counter))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(), "Concurrent HMACs should match JCA");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testThreadContextsAreFreed() throws Exception {
+        assumeTrue(backend.isAvailable(), "libcrypto backend is not available");
+        HMACBackend.Context context = backend.init("12345678901234567890".getBytes(), HMACUtils.SHA1_ALGORITHM);
+        context.computeCounter(0L);
+        int baseline = LibCryptoHMACBackend.liveContexts();
+
+        for (int t = 0; t < 1_000; t++) {
+            Thread thread = new Thread(() -> context.computeCounter(1L));
+            thread.start();
+            thread.join();
+        }
+
+        // Thread contexts are freed by a Cleaner once the ended threads' state is collected
+        for (int i = 0; i < 100 && LibCryptoHMACBackend.liveContexts() > baseline + 16; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertTrue(LibCryptoHMACBackend.liveContexts() <= baseline + 16,
+                "Native contexts of ended threads should be freed: " + LibCryptoHMACBackend.liveContexts());
+        assertArrayEquals(HMACUtils.calculateHMAC("12345678901234567890".getBytes(),
+                ByteBuffer.allocate(8).putLong(1L).array(), HMACUtils.SHA1_ALGORITHM), context.computeCounter(1L));
+    }
+
+    @Test
+    public void testInvalidAlgorithm() {
+        assumeTrue(backend.isAvailable(), "libcrypto backend is not available");
+        assertThrows(NoSuchAlgorithmException.class, () -> {
+            backend.init("12345678901234567890".getBytes(), "InvalidAlgorithm");
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package dev.vink.jtotp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+public class RecordingAnalyzerTest {
+
+    @Test
+    void SummarizesRecordedPhases(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("jtotp.jfr");
+        try (Recording recording = new Recording(profile("jtotp-profile.jfc"))) {
+            recording.start();
+            TOTPGenerator generator = new TOTPGenerator.Builder()
+                    .withSecret("JBSWY3DPEHPK3PXP")
+                    .withAlgorithm(HMACUtils.SHA256_ALGORITHM)
+                    .build();
+            String last = null;
+            for (int i = 0; i < 10; i++) {
+                last = generator.generateWithTime(i * 30L);
+            }
+            byte[] code = last.getBytes(StandardCharsets.US_ASCII);
+            assertTrue(generator.verifyWithTime(code, 0, code.length, 270L));
+            assertFalse(generator.verifyWithTime(code, 0, code.length, 600L));
+            CredentialSetVerifier verifier = new CredentialSetVerifier.Builder()
+                    .addCredential("phone", generator)
+                    .build();
+            assertTrue(verifier.verifyWithTime(last, 270L).isPresent());
+            TOTPGenerator invalid = new TOTPGenerator.Builder()
+                    .withSecret("JBSWY3DPEHPK3PXP")
+                    .withAlgorithm("InvalidAlgorithm")
+                    .build();
+            assertThrows(RuntimeException.class, invalid::now);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<String> phases = RecordingAnalyzer.summarize(file).stream()
+                .map(RecordingAnalyzer.PhaseSummary::getPhase)
+                .collect(Collectors.toList());
+        assertTrue(phases.contains("Generation [HmacSHA256]"), "Generation phase missing: " + phases);
+        assertTrue(phases.contains("Verification [HmacSHA256]"), "Verification phase missing: " + phases);
+        assertTrue(phases.contains("CredentialSetVerification"), "Credential set phase missing: " + phases);
+        assertTrue(phases.contains("HMAC [HmacSHA256]"), "HMAC phase missing: " + phases);
+        assertTrue(phases.contains("KeyInit [HmacSHA256]"), "Key initialization phase missing: " + phases);
+        assertTrue(phases.contains("SecretDecode"), "Secret decoding phase missing: " + phases);
+        assertTrue(phases.contains("GenerationError [InvalidAlgorithm]"), "Error phase missing: " + phases);
+
+        RecordingAnalyzer.PhaseSummary generation = RecordingAnalyzer.summarize(file).stream()
+                .filter(summary -> summary.getPhase().equals("Generation [HmacSHA256]"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(10, generation.getCount());
+
+        RecordingAnalyzer.PhaseSummary verification = RecordingAnalyzer.summarize(file).stream()
+                .filter(summary -> summary.getPhase().equals("Verification [HmacSHA256]"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, verification.getCount());
+        assertTrue(generation.getPercentileNanos(50) <= generation.getMaxNanos());
+    }
+
+    @Test
+    void AlwaysOnProfileKeepsEventThresholds() throws Exception {
+        Map<String, String> settings = profile("jtotp.jfc").getSettings();
+        for (String event : List.of("Generation", "Verification", "CredentialSetVerification", "HMAC",
+                "KeyInit", "SecretDecode")) {
+            assertEquals("1 ms", settings.get(TOTPEvents.PREFIX + event + "#threshold"),
+                    "Always-on profile should only record slow " + event + " events");
+        }
+        assertEquals("true", settings.get(TOTPEvents.PREFIX + "GenerationError#enabled"));
+    }
+
+    private static Configuration profile(String name) throws IOException, ParseException {
+        try (InputStream in = RecordingAnalyzer.class.getResourceAsStream(name)) {
+            assertNotNull(in, name + " should be on the classpath");
+            return Configuration.create(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+}
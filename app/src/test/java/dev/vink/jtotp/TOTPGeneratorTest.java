@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.ByteBuffer;
+
 import org.apache.commons.codec.binary.Base32;
 
 public class TOTPGeneratorTest {
@@ -160,4 +162,73 @@ public class TOTPGeneratorTest {
             assertEquals(expectedTOTPs[i], totp, "TOTP does not match for timestamp: " + timestamps[i]);
         }
     }
+
+    @Test
+    public void testGenerateRange_MatchesGenerateWithTime() {
+        String secretRaw = "12345678901234567890";
+        Base32 encoder = new Base32();
+        String secret = encoder.encodeToString(secretRaw.getBytes());
+        TOTPGenerator generator = new TOTPGenerator.Builder()
+                .withSecret(secret)
+                .withDigits(8)
+                .withAlgorithm(HMACUtils.SHA1_ALGORITHM)
+                .withPeriod(30)
+                .build();
+
+        long fromCounter = 1111111109L / 30;
+        int[] codes = generator.generateRange(fromCounter, 100);
+        assertEquals(100, codes.length);
+        assertEquals(7081804, codes[0], "Range should start with the RFC 6238 vector");
+        for (int i = 0; i < codes.length; i++) {
+            assertEquals(generator.generateWithTime((fromCounter + i) * 30), String.format("%08d", codes[i]),
+                    "Range code does not match for time step: " + (fromCounter + i));
+        }
+    }
+
+    @Test
+    public void testGenerateRange_InvalidCount() {
+        TOTPGenerator generator = new TOTPGenerator.Builder()
+                .withSecret("JBSWY3DPEHPK3PXP")
+                .build();
+        assertEquals(0, generator.generateRange(0, 0).length);
+        assertThrows(IllegalArgumentException.class, () -> generator.generateRange(0, -1));
+    }
+
+    @Test
+    public void testVerify_ByteArraySlice() {
+        String secretRaw = "12345678901234567890";
+        Base32 encoder = new Base32();
+        String secret = encoder.encodeToString(secretRaw.getBytes());
+        TOTPGenerator generator = new TOTPGenerator.Builder()
+                .withSecret(secret)
+                .withDigits(8)
+                .withAlgorithm(HMACUtils.SHA1_ALGORITHM)
+                .withPeriod(30)
+                .build();
+
+        byte[] request = "xx07081804yy".getBytes();
+        assertTrue(generator.verifyWithTime(request, 2, 8, 1111111109L), "Code with leading zero should verify");
+        assertFalse(generator.verifyWithTime(request, 2, 8, 59L), "Code should not verify for another time step");
+        assertFalse(generator.verifyWithTime(request, 3, 7, 1111111109L), "Code without leading zero should not verify");
+        assertFalse(generator.verifyWithTime("0708180a".getBytes(), 0, 8, 1111111109L), "Non-digit should not verify");
+        assertThrows(IndexOutOfBoundsException.class, () -> generator.verifyWithTime(request, 6, 8, 1111111109L));
+    }
+
+    @Test
+    public void testVerify_ByteBuffer() {
+        TOTPGenerator generator = new TOTPGenerator.Builder()
+                .withSecret("JBSWY3DPEHPK3PXP")
+                .withDigits(6)
+                .withAlgorithm(HMACUtils.SHA256_ALGORITHM)
+                .withPeriod(30)
+                .build();
+
+        long time = 1234567890L;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+        buffer.put("code=".getBytes()).put(generator.generateWithTime(time).getBytes()).flip();
+        assertTrue(generator.verifyWithTime(buffer, 5, 6, time), "Code should verify for its time step");
+        assertEquals(0, buffer.position(), "Buffer position should be unchanged");
+        assertFalse(generator.verifyWithTime(buffer, 4, 6, time), "Misaligned code should not verify");
+        assertThrows(IndexOutOfBoundsException.class, () -> generator.verifyWithTime(buffer, 6, 6, time));
+    }
 }